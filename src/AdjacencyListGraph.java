@@ -1,12 +1,25 @@
-public class AdjacencyListGraph implements Graph {
+public class AdjacencyListGraph implements MutableGraph {
     private final SinglyLinkedList<Edge>[] adjacencyList;
     private final int vertices;
     private final boolean isDirected;
+    private final VertexRegistry<?> registry;
+    private long version = 0;
 
 
     public AdjacencyListGraph(int vertices, boolean isDirected) {
+        this(vertices, isDirected, null);
+    }
+
+    // One vertex per registered item, so edges can also be added by vertex name.
+    // Register every vertex before creating the graph; later additions are not part of it.
+    public AdjacencyListGraph(VertexRegistry<?> registry, boolean isDirected) {
+        this(registry.size(), isDirected, registry);
+    }
+
+    private AdjacencyListGraph(int vertices, boolean isDirected, VertexRegistry<?> registry) {
         this.vertices = vertices;
         this.isDirected = isDirected;
+        this.registry = registry;
         this.adjacencyList = new SinglyLinkedList[vertices];
 
         for (int i = 0; i < vertices; i++) {
@@ -20,6 +33,7 @@ public class AdjacencyListGraph implements Graph {
         addEdge(from, to, 1);
     }
 
+    @Override
     public void addEdge(int from, int to, double weight) {
         if (from >= vertices || to >= vertices) {
             throw new IndexOutOfBoundsException("Vertex index out of bounds.");
@@ -29,6 +43,58 @@ public class AdjacencyListGraph implements Graph {
         if (!isDirected) {
             adjacencyList[to].append(new Edge(to, from, weight));
         }
+        version++;
+    }
+
+    //O(1) name lookups through the registry the graph was created with
+    public void addEdge(String from, String to, double weight) {
+        if (registry == null) {
+            throw new IllegalStateException("Graph was created without a vertex registry.");
+        }
+        addEdge(registry.requireName(from), registry.requireName(to), weight);
+    }
+
+    // null when the graph was created from a vertex count
+    public VertexRegistry<?> getRegistry() {
+        return registry;
+    }
+
+    //O(degree); reweights every from -> to edge (and to -> from when undirected)
+    public boolean updateWeight(int from, int to, double weight) {
+        checkVertex(from);
+        checkVertex(to);
+        boolean found = false;
+        for (Edge edge : adjacencyList[from]) {
+            if (edge.to == to) {
+                edge.weight = weight;
+                found = true;
+            }
+        }
+        if (!isDirected && from != to) {
+            for (Edge edge : adjacencyList[to]) {
+                if (edge.to == from) {
+                    edge.weight = weight;
+                }
+            }
+        }
+        if (found) {
+            version++;
+        }
+        return found;
+    }
+
+    //O(degree); removes every from -> to edge (and to -> from when undirected)
+    public boolean removeEdge(int from, int to) {
+        checkVertex(from);
+        checkVertex(to);
+        int removed = adjacencyList[from].removeIf(edge -> edge.to == to);
+        if (!isDirected && from != to) {
+            adjacencyList[to].removeIf(edge -> edge.to == from);
+        }
+        if (removed > 0) {
+            version++;
+        }
+        return removed > 0;
     }
 
     //O(E)
@@ -102,10 +168,26 @@ public class AdjacencyListGraph implements Graph {
         }
     }
 
+    @Override
     public int getVertices() {
         return vertices;
     }
 
+    @Override
+    public boolean isDirected() {
+        return isDirected;
+    }
+
+    @Override
+    public EdgeCursor edgeCursor() {
+        return new ListEdgeCursor();
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
     public int getEdgeCount() {
         int count = 0;
         for (int i = 0; i < vertices; i++) {
@@ -117,4 +199,41 @@ public class AdjacencyListGraph implements Graph {
         return count;
     }
 
-}
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= vertices) {
+            throw new IndexOutOfBoundsException("Vertex index out of bounds.");
+        }
+    }
+
+    private class ListEdgeCursor implements EdgeCursor {
+        private SinglyLinkedList<Edge>.Node next;
+        private Edge current;
+
+        @Override
+        public void reset(int vertex) {
+            next = getNeighbors(vertex).first();
+            current = null;
+        }
+
+        @Override
+        public boolean next() {
+            if (next == null) {
+                current = null;
+                return false;
+            }
+            current = next.getItem();
+            next = next.getNext();
+            return true;
+        }
+
+        @Override
+        public int to() {
+            return current.to;
+        }
+
+        @Override
+        public double weight() {
+            return current.weight;
+        }
+    }
+}
\ No newline at end of file
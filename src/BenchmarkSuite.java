@@ -0,0 +1,598 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+// Regression baseline for the routing and collection core:
+//   java BenchmarkSuite [name filter] [--save results.csv] [--compare results.csv]
+// Every benchmark runs WARMUP_ITERATIONS untimed and MEASURE_ITERATIONS timed iterations of at least
+// ITERATION_MILLIS each and reports the average time per operation with its spread across iterations,
+// like JMH's average-time mode. --save writes "name,ns/op" lines; --compare marks results that are
+// more than REGRESSION_THRESHOLD slower than a saved run. Inputs are built only for selected benchmarks.
+// Variants of one operation (heap arity, A* or not, threads...) share a name prefix so they print side by side.
+public class BenchmarkSuite {
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURE_ITERATIONS = 5;
+    private static final long ITERATION_MILLIS = 200;
+    private static final double REGRESSION_THRESHOLD = 0.10;
+    private static double sink;
+
+    private static final class Benchmark {
+        final String name;
+        // operations performed by one call of the body, so results are per element for collections
+        final int operations;
+        final Supplier<Runnable> setup;
+
+        Benchmark(String name, int operations, Supplier<Runnable> setup) {
+            this.name = name;
+            this.operations = operations;
+            this.setup = setup;
+        }
+    }
+
+    // A body holding threads or executors, released once the benchmark has been measured.
+    private interface ClosingBody extends Runnable, AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        String filter = "";
+        Path save = null;
+        Path compare = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--save") && i + 1 < args.length) {
+                save = Paths.get(args[++i]);
+            } else if (args[i].equals("--compare") && i + 1 < args.length) {
+                compare = Paths.get(args[++i]);
+            } else {
+                filter = args[i];
+            }
+        }
+        Map<String, Double> baseline = compare == null ? null : load(compare);
+
+        StringBuilder results = new StringBuilder();
+        int regressions = 0;
+        CArrayList<Benchmark> benchmarks = benchmarks();
+        for (int i = 0; i < benchmarks.size(); i++) {
+            Benchmark benchmark = benchmarks.get(i);
+            if (!benchmark.name.contains(filter)) {
+                continue;
+            }
+            double[] stats = measure(benchmark);
+            String line = String.format("%-70s %14.1f +- %10.1f ns/op", benchmark.name, stats[0], stats[1]);
+            if (baseline != null && baseline.containsKey(benchmark.name)) {
+                double change = stats[0] / baseline.get(benchmark.name) - 1;
+                boolean regressed = change > REGRESSION_THRESHOLD;
+                line += String.format("  %+6.1f%%%s", change * 100, regressed ? "  REGRESSION" : "");
+                if (regressed) {
+                    regressions++;
+                }
+            }
+            System.out.println(line);
+            results.append(benchmark.name).append(',').append(stats[0]).append('\n');
+        }
+        if (save != null) {
+            Files.writeString(save, results);
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) slower than the baseline by more than " +
+                    (int) (REGRESSION_THRESHOLD * 100) + "%.");
+        }
+    }
+
+    private static CArrayList<Benchmark> benchmarks() {
+        CArrayList<Benchmark> benchmarks = new CArrayList<>();
+        int[] graphSizes = {1_000, 10_000, 100_000};
+        for (String shape : new String[]{"grid", "geometric", "road", "scaleFree"}) {
+            for (int size : graphSizes) {
+                benchmarks.add(new Benchmark("dijkstras.findShortestPath/" + shape + "/" + size, 1,
+                        () -> shortestPaths(graph(shape, size))));
+            }
+        }
+        // the navigator searches a V x 2 x V state space, so its inputs stay small
+        int[] campusSizes = {100, 400};
+        for (String shape : new String[]{"grid", "geometric", "scaleFree"}) {
+            for (int size : campusSizes) {
+                benchmarks.add(new Benchmark("campusNavigator.computeOptimalPathSegment/" + shape + "/" + size, 1,
+                        () -> pathSegments(graph(shape, size))));
+                benchmarks.add(new Benchmark("campusNavigator.computeFullSchedule/" + shape + "/" + size, 1,
+                        () -> fullSchedules(graph(shape, size))));
+            }
+        }
+        for (int size : new int[]{1_000, 100_000}) {
+            benchmarks.add(new Benchmark("priorityQueue.addRemoveMin/" + size, 2 * size, () -> priorityQueue(size)));
+            benchmarks.add(new Benchmark("cArrayList.add/" + size, size, () -> arrayListAdd(size)));
+            benchmarks.add(new Benchmark("cArrayList.get/" + size, size, () -> arrayListGet(size)));
+            benchmarks.add(new Benchmark("singlyLinkedList.iterate/" + size, size, () -> linkedListIterate(size)));
+            benchmarks.add(new Benchmark("singlyLinkedList.cursorWalk/" + size, size, () -> linkedListCursor(size)));
+        }
+        // removing from the middle shifts half the list, so large sizes would take minutes
+        for (int size : new int[]{1_000, 10_000}) {
+            benchmarks.add(new Benchmark("cArrayList.removeIndexMiddle/" + size, size, () -> arrayListRemove(size)));
+        }
+        addRoutingBenchmarks(benchmarks);
+        return benchmarks;
+    }
+
+    // Variants of the routing engines against each other on fixed inputs.
+    private static void addRoutingBenchmarks(CArrayList<Benchmark> benchmarks) {
+        // hub graphs: getNodeAt(i) walks each neighbor list from its head, the cursor walks it once
+        for (int degree : new int[]{200, 1000, 4000}) {
+            String suffix = "/hub/" + degree;
+            benchmarks.add(new Benchmark("neighborScan.getNodeAt" + suffix, 1,
+                    () -> getNodeAtScan(hubGraph(degree + 1, 4, new Random(degree)))));
+            benchmarks.add(new Benchmark("neighborScan.edgeCursor" + suffix, 1,
+                    () -> edgeCursorScan(hubGraph(degree + 1, 4, new Random(degree)))));
+        }
+        for (int arity : new int[]{0, 2, 4, 8}) {
+            benchmarks.add(new Benchmark("dijkstras.findShortestPath/hub/20000/" + (arity == 0 ? "lazy" : arity + "-ary"), 1,
+                    () -> hubQuery(arity)));
+        }
+        for (int arity : new int[]{0, 4}) {
+            benchmarks.add(new Benchmark("campusNavigator.computeFullSchedule/grid/225/" +
+                    (arity == 0 ? "positionObjects" : "pooled" + arity + "-ary"), 1, () -> fixedSchedule(arity)));
+        }
+        for (boolean astar : new boolean[]{false, true}) {
+            benchmarks.add(new Benchmark("campusNavigator.computeOptimalPathSegment/coordinateGrid/900/" +
+                    (astar ? "astar" : "uniform"), 1, () -> cornerSegment(astar)));
+        }
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(threads * 2, processors)) {
+            int pool = threads;
+            benchmarks.add(new Benchmark("campusNavigator.computeSchedules/grid/225/" + threads + "threads", 64,
+                    () -> batchSchedules(pool, true)));
+            benchmarks.add(new Benchmark("campusNavigator.submitComputeFullSchedule/grid/225/" + threads + "threads", 64,
+                    () -> batchSchedules(pool, false)));
+            if (threads == processors) {
+                break;
+            }
+        }
+        for (boolean edits : new boolean[]{false, true}) {
+            benchmarks.add(new Benchmark("versionedGraph.findShortestPath/grid/10000/" + (edits ? "duringEdits" : "quiet"), 1,
+                    () -> versionedQueries(edits)));
+        }
+        benchmarks.add(new Benchmark("dynamicShortestPaths.updateWeightAndQuery/grid/10000", 1, () -> reweight(true)));
+        benchmarks.add(new Benchmark("dijkstras.updateWeightAndRecompute/grid/10000", 1, () -> reweight(false)));
+        // same graphs and endpoint pairs as dijkstras.findShortestPath, after one-off preprocessing
+        for (String shape : new String[]{"grid", "road"}) {
+            for (int size : new int[]{1_000, 10_000}) {
+                benchmarks.add(new Benchmark("contractionHierarchy.findShortestPath/" + shape + "/" + size, 1,
+                        () -> contractedPaths(graph(shape, size))));
+            }
+        }
+        for (String mode : new String[]{"fullTree", "earlyExit", "bidirectional"}) {
+            benchmarks.add(new Benchmark("dijkstras.nearbyQuery/grid/40000/" + mode, 32, () -> nearbyQueries(mode)));
+        }
+    }
+
+    // Returns {mean, standard deviation} in nanoseconds per operation.
+    private static double[] measure(Benchmark benchmark) {
+        Runnable body = benchmark.setup.get();
+        double[] samples = new double[MEASURE_ITERATIONS];
+        double mean = 0;
+        try {
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                iteration(body, benchmark.operations);
+            }
+            for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+                samples[i] = iteration(body, benchmark.operations);
+                mean += samples[i] / MEASURE_ITERATIONS;
+            }
+        } finally {
+            if (body instanceof ClosingBody) {
+                ((ClosingBody) body).close();
+            }
+        }
+        double variance = 0;
+        for (double sample : samples) {
+            variance += (sample - mean) * (sample - mean) / Math.max(1, MEASURE_ITERATIONS - 1);
+        }
+        return new double[]{mean, Math.sqrt(variance)};
+    }
+
+    private static double iteration(Runnable body, int operations) {
+        long budget = ITERATION_MILLIS * 1_000_000L;
+        long calls = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            body.run();
+            calls++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < budget);
+        return (double) elapsed / (calls * operations);
+    }
+
+    static AdjacencyListGraph graph(String shape, int vertices) {
+        Random random = new Random(vertices * 31L + shape.hashCode());
+        switch (shape) {
+            case "grid":
+                return GraphGenerator.grid((int) Math.round(Math.sqrt(vertices)), 9, random);
+            case "geometric":
+                return GraphGenerator.randomGeometric(GraphGenerator.randomPoints(vertices, random),
+                        GraphGenerator.radiusForDegree(vertices, 6));
+            case "road":
+                int side = (int) Math.round(Math.sqrt(vertices));
+                return GraphGenerator.roadNetwork(GraphGenerator.jitteredGridPoints(side, 0.6, random), side, random);
+            case "scaleFree":
+                return GraphGenerator.scaleFree(vertices, 3, random);
+            default:
+                throw new IllegalArgumentException("Unknown graph shape: " + shape);
+        }
+    }
+
+    // Fixed random endpoint pairs, cycled through one query per call.
+    private static int[][] pairs(int vertices, int count) {
+        Random random = new Random(vertices);
+        int[][] pairs = new int[count][2];
+        for (int[] pair : pairs) {
+            pair[0] = random.nextInt(vertices);
+            pair[1] = random.nextInt(vertices);
+        }
+        return pairs;
+    }
+
+    private static Runnable shortestPaths(AdjacencyListGraph graph) {
+        Dijkstras engine = new Dijkstras(graph);
+        int[][] pairs = pairs(graph.getVertices(), 64);
+        int[] next = new int[1];
+        return () -> {
+            int[] pair = pairs[next[0]++ & 63];
+            sink += engine.findShortestPath(pair[0], pair[1]).getTotalWeight();
+        };
+    }
+
+    private static Runnable pathSegments(AdjacencyListGraph graph) {
+        CampusNavigator navigator = new CampusNavigator(graph, 1.5);
+        int[][] pairs = pairs(graph.getVertices(), 16);
+        int[] next = new int[1];
+        return () -> {
+            int[] pair = pairs[next[0]++ & 15];
+            sink += navigator.computeOptimalPathSegment(pair[0], pair[1], true, false).size();
+        };
+    }
+
+    private static Runnable fullSchedules(AdjacencyListGraph graph) {
+        CampusNavigator navigator = new CampusNavigator(graph, 1.5);
+        Random random = new Random(graph.getVertices());
+        CArrayList<CArrayList<ScheduleEntry>> schedules = new CArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            CArrayList<ScheduleEntry> schedule = new CArrayList<>();
+            for (int stop = 0; stop < 4; stop++) {
+                schedule.add(new ScheduleEntry(random.nextInt(graph.getVertices()), random.nextBoolean()));
+            }
+            schedules.add(schedule);
+        }
+        int[] next = new int[1];
+        return () -> sink += navigator.computeFullSchedule(schedules.get(next[0]++ & 7)).size();
+    }
+
+    // A few plazas connected to every other vertex, plus a sparse ring.
+    static AdjacencyListGraph hubGraph(int vertices, int hubs, Random random) {
+        AdjacencyListGraph graph = new AdjacencyListGraph(vertices, false);
+        for (int v = 0; v < vertices; v++) {
+            graph.addEdge(v, (v + 1) % vertices, 1 + random.nextDouble() * 10);
+        }
+        for (int hub = 0; hub < hubs; hub++) {
+            for (int v = hubs; v < vertices; v++) {
+                graph.addEdge(hub, v, 1 + random.nextDouble() * 50);
+            }
+        }
+        return graph;
+    }
+
+    private static Runnable getNodeAtScan(AdjacencyListGraph graph) {
+        return () -> {
+            double total = 0;
+            for (int u = 0; u < graph.getVertices(); u++) {
+                SinglyLinkedList<Edge> neighbors = graph.getNeighbors(u);
+                int size = neighbors.size();
+                for (int i = 0; i < size; i++) {
+                    total += neighbors.getNodeAt(i).getItem().weight;
+                }
+            }
+            sink += total;
+        };
+    }
+
+    private static Runnable edgeCursorScan(Graph graph) {
+        EdgeCursor edges = graph.edgeCursor();
+        return () -> {
+            double total = 0;
+            for (int u = 0; u < graph.getVertices(); u++) {
+                edges.reset(u);
+                while (edges.next()) {
+                    total += edges.weight();
+                }
+            }
+            sink += total;
+        };
+    }
+
+    // Lazy PriorityQueue<Edge> (arity 0) against the indexed heap, end to end across a hub graph.
+    private static Runnable hubQuery(int arity) {
+        Dijkstras engine = new Dijkstras(hubGraph(20000, 16, new Random(7)), arity);
+        return () -> sink += engine.findShortestPath(0, 19999).getTotalWeight();
+    }
+
+    // One four-stop backpack schedule across a 15 x 15 grid; the state space is V x 2 x V.
+    private static Runnable fixedSchedule(int arity) {
+        int side = 15;
+        CampusNavigator navigator = new CampusNavigator(GraphGenerator.grid(side, 9, new Random(3)), 1.5);
+        navigator.setHeapArity(arity);
+        CArrayList<ScheduleEntry> schedule = new CArrayList<>();
+        schedule.add(new ScheduleEntry(0, true));
+        schedule.add(new ScheduleEntry(side * side / 2, false));
+        schedule.add(new ScheduleEntry(side - 1, true));
+        schedule.add(new ScheduleEntry(side * side - 1, false));
+        return () -> sink += navigator.computeFullSchedule(schedule).size();
+    }
+
+    // Corner-to-corner segment on a grid whose vertices sit at their (col, row) coordinates and
+    // whose weights are within 25% of the straight-line length, like walking distances on a map.
+    private static Runnable cornerSegment(boolean astar) {
+        int side = 30;
+        AdjacencyListGraph graph = GraphGenerator.grid(side, 0.25, new Random(11));
+        double[][] points = GraphGenerator.gridPoints(side);
+        CampusNavigator navigator = new CampusNavigator(graph, 1.5);
+        navigator.setHeapArity(4);
+        navigator.setHeuristic(astar ? new CoordinateHeuristic(graph, points[0], points[1]) : null);
+        return () -> sink += navigator.computeOptimalPathSegment(0, side * side - 1, true, true).size();
+    }
+
+    // 64 random four-stop schedules planned by a single shared navigator left at its defaults, either as one
+    // batch (pooled search scratch) or as one computeFullSchedule task per schedule (a queue and Position
+    // objects per segment).
+    private static Runnable batchSchedules(int threads, boolean batch) {
+        int side = 15;
+        Random random = new Random(17);
+        CArrayList<CArrayList<ScheduleEntry>> schedules = new CArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            CArrayList<ScheduleEntry> schedule = new CArrayList<>();
+            for (int stop = 0; stop < 4; stop++) {
+                schedule.add(new ScheduleEntry(random.nextInt(side * side), random.nextBoolean()));
+            }
+            schedules.add(schedule);
+        }
+        CampusNavigator navigator = new CampusNavigator(GraphGenerator.grid(side, 9, new Random(5)), 1.5);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        return new ClosingBody() {
+            @Override
+            public void run() {
+                if (batch) {
+                    sink += navigator.computeSchedules(schedules, executor, false).size();
+                    return;
+                }
+                CArrayList<Future<CArrayList<CampusNavigator.Position>>> pending = new CArrayList<>(schedules.size());
+                for (int i = 0; i < schedules.size(); i++) {
+                    CArrayList<ScheduleEntry> schedule = schedules.get(i);
+                    pending.add(executor.submit(() -> navigator.computeFullSchedule(schedule)));
+                }
+                try {
+                    for (int i = 0; i < pending.size(); i++) {
+                        sink += pending.get(i).get().size();
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public void close() {
+                executor.shutdown();
+            }
+        };
+    }
+
+    // Random queries on a VersionedGraph, optionally while another thread keeps committing reweight
+    // batches; readers never wait for the writer.
+    private static Runnable versionedQueries(boolean edits) {
+        int side = 100;
+        VersionedGraph graph = VersionedGraph.copyOf(GraphGenerator.grid(side, 9, new Random(13)));
+        Dijkstras engine = new Dijkstras(graph, 4);
+        Random queries = new Random(19);
+        Thread writer = new Thread(() -> {
+            Random random = new Random(23);
+            while (!Thread.currentThread().isInterrupted()) {
+                VersionedGraph.Batch batch = graph.edit();
+                for (int i = 0; i < 16; i++) {
+                    int v = random.nextInt(side * side - 1);
+                    batch.updateWeight(v, v + 1, 1 + random.nextDouble() * 9);
+                }
+                batch.commit();
+            }
+        });
+        if (edits) {
+            writer.start();
+        }
+        return new ClosingBody() {
+            @Override
+            public void run() {
+                sink += engine.findShortestPath(queries.nextInt(side * side), queries.nextInt(side * side)).getTotalWeight();
+            }
+
+            @Override
+            public void close() {
+                writer.interrupt();
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    // One random reweight followed by a distance query: repairing the existing tree, or
+    // recomputing it from scratch with Dijkstras.
+    private static Runnable reweight(boolean repair) {
+        int side = 100;
+        int target = side * side - 1;
+        AdjacencyListGraph graph = GraphGenerator.grid(side, 9, new Random(29));
+        Random edits = new Random(31);
+        if (repair) {
+            DynamicShortestPaths dynamic = new DynamicShortestPaths(graph, 0);
+            return () -> {
+                int v = edits.nextInt(target);
+                dynamic.updateWeight(v, v + 1, 1 + edits.nextDouble() * 9);
+                sink += dynamic.distTo(target);
+            };
+        }
+        Dijkstras engine = new Dijkstras(graph, 4);
+        return () -> {
+            int v = edits.nextInt(target);
+            graph.updateWeight(v, v + 1, 1 + edits.nextDouble() * 9);
+            engine.computeFrom(0);
+            sink += engine.distTo(target);
+        };
+    }
+
+    private static Runnable contractedPaths(AdjacencyListGraph graph) {
+        ContractionHierarchy.Query query = ContractionHierarchy.build(graph).newQuery();
+        int[][] pairs = pairs(graph.getVertices(), 64);
+        int[] next = new int[1];
+        return () -> {
+            int[] pair = pairs[next[0]++ & 63];
+            sink += query.findShortestPath(pair[0], pair[1]).getTotalWeight();
+        };
+    }
+
+    // 32 targets within a few blocks of their sources: a full tree, stopping at the target,
+    // or searching from both ends.
+    private static Runnable nearbyQueries(String mode) {
+        int side = 200;
+        AdjacencyListGraph graph = GraphGenerator.grid(side, 9, new Random(43));
+        int[] sources = new int[32];
+        int[] targets = new int[32];
+        Random random = new Random(47);
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = random.nextInt(side * side);
+            targets[i] = Math.min(side * side - 1, sources[i] + random.nextInt(6) * side + random.nextInt(6));
+        }
+        Dijkstras engine = new Dijkstras(graph, 4);
+        engine.setBidirectional(mode.equals("bidirectional"));
+        boolean fullTree = mode.equals("fullTree");
+        return () -> {
+            for (int i = 0; i < sources.length; i++) {
+                if (fullTree) {
+                    engine.computeFrom(sources[i]);
+                    sink += engine.distTo(targets[i]);
+                } else {
+                    sink += engine.findShortestPath(sources[i], targets[i]).getTotalWeight();
+                }
+            }
+        };
+    }
+
+    private static Runnable priorityQueue(int size) {
+        Double[] values = new Double[size];
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble();
+        }
+        return () -> {
+            PriorityQueue<Double> queue = new PriorityQueue<>(size);
+            for (Double value : values) {
+                queue.add(value);
+            }
+            while (!queue.isEmpty()) {
+                sink += queue.removeMin();
+            }
+        };
+    }
+
+    private static Runnable arrayListAdd(int size) {
+        return () -> {
+            CArrayList<Integer> list = new CArrayList<>();
+            for (int i = 0; i < size; i++) {
+                list.add(i);
+            }
+            sink += list.size();
+        };
+    }
+
+    private static Runnable arrayListGet(int size) {
+        CArrayList<Integer> list = new CArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        int[] indices = new int[size];
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            indices[i] = random.nextInt(size);
+        }
+        return () -> {
+            long total = 0;
+            for (int index : indices) {
+                total += list.get(index);
+            }
+            sink += total;
+        };
+    }
+
+    // Each call refills the list and then empties it from the middle; the time per operation
+    // covers one add and one removeIndex.
+    private static Runnable arrayListRemove(int size) {
+        return () -> {
+            CArrayList<Integer> list = new CArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(i);
+            }
+            while (!list.isEmpty()) {
+                list.removeIndex(list.size() / 2);
+            }
+            sink += list.size();
+        };
+    }
+
+    private static SinglyLinkedList<Edge> edgeList(int size) {
+        SinglyLinkedList<Edge> list = new SinglyLinkedList<>();
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            list.append(new Edge(0, i, random.nextDouble()));
+        }
+        return list;
+    }
+
+    private static Runnable linkedListIterate(int size) {
+        SinglyLinkedList<Edge> list = edgeList(size);
+        return () -> {
+            double total = 0;
+            for (Edge edge : list) {
+                total += edge.weight;
+            }
+            sink += total;
+        };
+    }
+
+    private static Runnable linkedListCursor(int size) {
+        SinglyLinkedList<Edge> list = edgeList(size);
+        return () -> {
+            double total = 0;
+            for (SinglyLinkedList<Edge>.Node node = list.first(); node != null; node = node.getNext()) {
+                total += node.getItem().weight;
+            }
+            sink += total;
+        };
+    }
+
+    private static Map<String, Double> load(Path file) throws IOException {
+        Map<String, Double> baseline = new HashMap<>();
+        for (String line : Files.readAllLines(file)) {
+            int comma = line.lastIndexOf(',');
+            if (comma > 0) {
+                baseline.put(line.substring(0, comma), Double.parseDouble(line.substring(comma + 1)));
+            }
+        }
+        return baseline;
+    }
+}
@@ -1,30 +1,134 @@
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
+// Safe to share between threads once configured: each search borrows a SearchStatePool for its scratch
+// space and hands it back, the segment cache is synchronized, and the graph is only read.
 public class CampusNavigator{
+    private static final int INTERRUPT_CHECK_INTERVAL = 1024;
 
-    private final AdjacencyListGraph graph;
+    private final Graph graph;
     private final double backpackMultiplier;
+    private volatile int heapArity = 0;
+    // Idle SearchStatePools. Borrowing one per search rather than keeping one per thread means the scratch
+    // is reused even when every call arrives on a new thread, like RoutingServer's virtual threads.
+    private final ConcurrentLinkedQueue<SearchStatePool> pools = new ConcurrentLinkedQueue<>();
+    private volatile Heuristic heuristic;
+    private final LongAdder expandedStates = new LongAdder();
+    private volatile SegmentCache segmentCache;
 
-    public CampusNavigator(AdjacencyListGraph graph, double carryingFactor) {
+    public CampusNavigator(Graph graph, double carryingFactor) {
         this.graph = graph;
         this.backpackMultiplier = carryingFactor;
     }
 
+    // 0 keeps the lazy PriorityQueue<Position>; 2, 4, 8... switch to the pooled search, which keeps
+    // states in a SearchStatePool of parallel primitive arrays and queues each state at most once in an
+    // IndexedMinHeap of that arity. Position objects are then only created for the returned path.
+    public void setHeapArity(int heapArity) {
+        if (heapArity != 0 && heapArity < 2) {
+            throw new IllegalArgumentException("Heap arity must be 0 or at least 2.");
+        }
+        this.heapArity = heapArity;
+        pools.clear();
+    }
+
+    // Turns segment searches into A*. The heuristic must be a consistent lower bound on plain walking
+    // distance; estimate() combines it with the backpack state and multiplier. Uses the pooled search,
+    // with a 4-ary heap unless setHeapArity chose another arity. Pass null to go back to uniform-cost search.
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    // Serves repeated segment searches from an LRU cache built for this navigator's graph; null disables caching.
+    // The cache drops its entries on its own once the graph version changes.
+    public void setSegmentCache(SegmentCache segmentCache) {
+        if (segmentCache != null && segmentCache.getGraph() != graph) {
+            throw new IllegalArgumentException("Segment cache belongs to a different graph.");
+        }
+        this.segmentCache = segmentCache;
+    }
+
+    public SegmentCache getSegmentCache() {
+        return segmentCache;
+    }
+
+    // Number of states taken off the queue since the last reset, across all segment searches.
+    public long getExpandedStates() {
+        return expandedStates.sum();
+    }
+
+    public void resetExpandedStates() {
+        expandedStates.reset();
+    }
+
+    private SearchStatePool borrowStates() {
+        SearchStatePool states = pools.poll();
+        return states != null ? states : new SearchStatePool(poolArity());
+    }
+
+    // Pools built before a setHeapArity call are dropped instead of returned.
+    private void returnStates(SearchStatePool states) {
+        if (states.getHeapArity() == poolArity()) {
+            pools.offer(states);
+        }
+    }
+
+    private int poolArity() {
+        return heapArity != 0 ? heapArity : 4;
+    }
+
+    public enum Action {
+        START,
+        MOVE,
+        DROP,
+        PICK_UP,
+        // reaching a schedule stop; only used inside computeOptimalSchedule and never returned
+        ARRIVE
+    }
+
     public class Position implements Comparable<Position> {
         int vertex;
         boolean carrying;
         int backpackLocation;
         double cost;
         Position prev;
-        String action;
+        Action action;
+        // vertex the action started from: the previous vertex for MOVE, -1 for an unlabelled START
+        int from;
 
-        public Position(int vertex, boolean carrying, int backpackLocation, double cost, Position prev, String action) {
+        public Position(int vertex, boolean carrying, int backpackLocation, double cost, Position prev, Action action, int from) {
             this.vertex = vertex;
             this.carrying = carrying;
             this.backpackLocation = backpackLocation;
             this.cost = cost;
             this.prev = prev;
             this.action = action;
+            this.from = from;
+        }
+
+        // Text is only built when a path is printed or displayed, never during the search.
+        public String describeAction() {
+            switch (action) {
+                case START:
+                    return from == -1 ? "start" : "start at " + from;
+                case MOVE:
+                    return "move from " + from + " to " + vertex + (carrying ? " with backpack" : " without backpack");
+                case DROP:
+                    return "drop backpack";
+                case PICK_UP:
+                    return "pick up backpack";
+                case ARRIVE:
+                    return "arrive at " + vertex;
+                default:
+                    return "";
+            }
         }
 
         @Override
@@ -33,21 +137,28 @@ public class CampusNavigator{
         }
     }
 
-    private boolean updateBestPosition(Position candidate, CArrayList<Position> bestPositions) {
-        for (int i = 0; i < bestPositions.size(); i++) {
-            Position existing = bestPositions.get(i);
-            if (existing.vertex == candidate.vertex &&
-                    existing.carrying == candidate.carrying &&
-                    existing.backpackLocation == candidate.backpackLocation) {
-                if (candidate.cost < existing.cost) {
-                    bestPositions.set(i, candidate);
-                    return true;
-                }
-                return false;
-            }
+    // States live in a stage x V x 2 x V space, packed as
+    // (((stage * V + vertex) * 2 + carrying) * V + backpackLocation). Single-segment searches use stage 0.
+    // Every search keys its states through here so the layouts cannot drift apart.
+    private long stateKey(int stage, int vertex, boolean carrying, int backpackLocation) {
+        long vertices = graph.getVertices();
+        return (((long) stage * vertices + vertex) * 2 + (carrying ? 1 : 0)) * vertices + backpackLocation;
+    }
+
+    // Returns the slot of the improved state in bestPositions, or -1 if the candidate is no better. O(1) expected.
+    private int updateBestPosition(Position candidate, CArrayList<Position> bestPositions, StateTable slots) {
+        long key = stateKey(0, candidate.vertex, candidate.carrying, candidate.backpackLocation);
+        int slot = slots.get(key);
+        if (slot == -1) {
+            bestPositions.add(candidate);
+            slots.put(key, bestPositions.size() - 1);
+            return bestPositions.size() - 1;
+        }
+        if (candidate.cost < bestPositions.get(slot).cost) {
+            bestPositions.set(slot, candidate);
+            return slot;
         }
-        bestPositions.add(candidate);
-        return true;
+        return -1;
     }
 
     public CArrayList<Position> computeOptimalPathSegment(
@@ -56,8 +167,37 @@ public class CampusNavigator{
             boolean startCarrying,
             boolean endCarrying
     ) {
+        return pathSegment(start, end, startCarrying, endCarrying, false);
+    }
+
+    // pooled forces the SearchStatePool search even when heapArity is 0 and no heuristic is set.
+    private CArrayList<Position> pathSegment(int start, int end, boolean startCarrying, boolean endCarrying,
+                                             boolean pooled) {
+        // one snapshot for both the search and the cache tag, so a concurrent edit cannot file a newer
+        // result under an older version
+        Graph view = graph.snapshot();
+        if (segmentCache == null) {
+            return searchPathSegment(view, start, end, startCarrying, endCarrying, pooled);
+        }
+        long version = view.getVersion();
+        CArrayList<Position> cached = segmentCache.get(version, start, end, startCarrying, endCarrying, backpackMultiplier);
+        if (cached != null) {
+            return cached;
+        }
+        CArrayList<Position> segment = searchPathSegment(view, start, end, startCarrying, endCarrying, pooled);
+        segmentCache.put(version, start, end, startCarrying, endCarrying, backpackMultiplier, segment);
+        return segment;
+    }
+
+    private CArrayList<Position> searchPathSegment(Graph view, int start, int end, boolean startCarrying,
+                                                   boolean endCarrying, boolean pooled) {
+        if (pooled || heapArity != 0 || heuristic != null) {
+            return computePooledPathSegment(view, start, end, startCarrying, endCarrying);
+        }
         PriorityQueue<Position> queue = new PriorityQueue<>();
         CArrayList<Position> bestPositions = new CArrayList<>();
+        StateTable slots = new StateTable();
+        EdgeCursor edges = view.edgeCursor();
 
         Position startPosition = new Position(
                 start,
@@ -65,15 +205,19 @@ public class CampusNavigator{
                 start,
                 0.0,
                 null,
-                "start"
+                Action.START,
+                -1
         );
-        updateBestPosition(startPosition, bestPositions);
+        updateBestPosition(startPosition, bestPositions, slots);
         queue.add(startPosition);
 
         Position goalPosition = null;
 
+        long expanded = 0;
         while (!queue.isEmpty()) {
             Position current = queue.removeMin();
+            expanded++;
+            checkInterrupted(expanded);
 
             if (current.vertex == end && current.carrying == endCarrying) {
                 goalPosition = current;
@@ -88,9 +232,10 @@ public class CampusNavigator{
                         current.vertex,
                         dropCost,
                         current,
-                        "drop backpack"
+                        Action.DROP,
+                        current.vertex
                 );
-                if (updateBestPosition(dropPosition, bestPositions)) {
+                if (updateBestPosition(dropPosition, bestPositions, slots) != -1) {
                     queue.add(dropPosition);
                 }
             }
@@ -103,33 +248,23 @@ public class CampusNavigator{
                             current.backpackLocation,
                             pickupCost,
                             current,
-                            "pick up backpack"
+                            Action.PICK_UP,
+                            current.vertex
                     );
-                    if (updateBestPosition(pickupPosition, bestPositions)) {
+                    if (updateBestPosition(pickupPosition, bestPositions, slots) != -1) {
                         queue.add(pickupPosition);
                     }
                 }
             }
 
-            SinglyLinkedList<Edge> neighbors = graph.getNeighbors(current.vertex);
-            for (Edge edge : neighbors) {
-                int nextVertex = edge.to;
+            edges.reset(current.vertex);
+            while (edges.next()) {
+                int nextVertex = edges.to();
                 double edgeCost;
                 if (current.carrying) {
-                    edgeCost = current.cost + edge.weight * backpackMultiplier;
-                } else {
-                    edgeCost = current.cost + edge.weight;
-                }
-
-                String moveAction;
-                if (current.carrying) {
-                    moveAction = "move from " + current.vertex +
-                            " to " + nextVertex +
-                            " with backpack";
+                    edgeCost = current.cost + edges.weight() * backpackMultiplier;
                 } else {
-                    moveAction = "move from " + current.vertex +
-                            " to " + nextVertex +
-                            " without backpack";
+                    edgeCost = current.cost + edges.weight();
                 }
 
                 Position nextPosition = new Position(
@@ -138,14 +273,17 @@ public class CampusNavigator{
                         current.backpackLocation,
                         edgeCost,
                         current,
-                        moveAction
+                        Action.MOVE,
+                        current.vertex
                 );
-                if (updateBestPosition(nextPosition, bestPositions)) {
+                if (updateBestPosition(nextPosition, bestPositions, slots) != -1) {
                     queue.add(nextPosition);
                 }
             }
         }
 
+        expandedStates.add(expanded);
+
         CArrayList<Position> path = new CArrayList<>();
         if (goalPosition != null) {
             Position cursor = goalPosition;
@@ -157,56 +295,525 @@ public class CampusNavigator{
         return path;
     }
 
+    // Searches poll the interrupt flag every INTERRUPT_CHECK_INTERVAL expansions, so a cancelled
+    // background plan stops promptly. The flag stays set for the caller.
+    private static void checkInterrupted(long expanded) {
+        if (expanded % INTERRUPT_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Path search interrupted.");
+        }
+    }
+
+    private CArrayList<Position> computePooledPathSegment(Graph view, int start, int end, boolean startCarrying,
+                                                          boolean endCarrying) {
+        SearchStatePool states = borrowStates();
+        try {
+            return computePooledPathSegment(states, view, start, end, startCarrying, endCarrying);
+        } finally {
+            returnStates(states);
+        }
+    }
+
+    private CArrayList<Position> computePooledPathSegment(SearchStatePool states, Graph view, int start, int end,
+                                                          boolean startCarrying, boolean endCarrying) {
+        states.reset(view);
+        states.goalVertex = end;
+        states.goalCarrying = endCarrying;
+        offer(states, start, startCarrying, start, 0.0, -1, Action.START);
+
+        int goal = -1;
+        long expanded = 0;
+        while (!states.heap.isEmpty()) {
+            int current = states.heap.removeMin();
+            expanded++;
+            checkInterrupted(expanded);
+            int vertex = states.vertex[current];
+            boolean carrying = states.carrying(current);
+            int backpackLocation = states.backpack[current];
+            double cost = states.cost[current];
+
+            if (vertex == end && carrying == endCarrying) {
+                goal = current;
+                break;
+            }
+
+            if (carrying) {
+                offer(states, vertex, false, vertex, cost + 0.01, current, Action.DROP);
+            } else if (vertex == backpackLocation) {
+                offer(states, vertex, true, backpackLocation, cost + 0.01, current, Action.PICK_UP);
+            }
+
+            double factor = carrying ? backpackMultiplier : 1.0;
+            EdgeCursor edges = states.edges;
+            edges.reset(vertex);
+            while (edges.next()) {
+                offer(states, edges.to(), carrying, backpackLocation, cost + edges.weight() * factor, current, Action.MOVE);
+            }
+        }
+        expandedStates.add(expanded);
+        return materialize(states, goal);
+    }
+
+    // Pooled counterpart of updateBestPosition: adds the state or lowers its cost, and (re)queues it.
+    // The queue priority is cost plus the heuristic estimate to the goal when A* is enabled.
+    private void offer(SearchStatePool states, int vertex, boolean carrying, int backpackLocation,
+                       double cost, int pred, Action action) {
+        long key = stateKey(0, vertex, carrying, backpackLocation);
+        int slot = states.index.get(key);
+        if (slot == -1) {
+            slot = states.add(vertex, carrying, backpackLocation, cost, pred, action);
+            states.index.put(key, slot);
+            states.heap.insert(slot, cost + estimate(states, vertex, carrying, backpackLocation));
+        } else if (cost < states.cost[slot] && states.heap.contains(slot)) {
+            states.set(slot, cost, pred, carrying, action);
+            states.heap.decreaseKey(slot, cost + estimate(states, vertex, carrying, backpackLocation));
+        }
+    }
+
+    // Lower bound on the rest of the segment, built from the plain-distance heuristic:
+    // - goal without backpack: walk there, at best at min(1, multiplier) per unit;
+    // - goal with backpack, carrying it: the backpack itself must be carried to the goal;
+    // - goal with backpack, not carrying: walk to the backpack, then carry it to the goal.
+    // Each case is consistent across moves, drops and pick-ups, so settled states stay final.
+    private double estimate(SearchStatePool states, int vertex, boolean carrying, int backpackLocation) {
+        if (heuristic == null) {
+            return 0;
+        }
+        int goal = states.goalVertex;
+        if (!states.goalCarrying) {
+            return heuristic.estimate(vertex, goal) * Math.min(1.0, backpackMultiplier);
+        }
+        if (carrying) {
+            return heuristic.estimate(vertex, goal) * backpackMultiplier;
+        }
+        return heuristic.estimate(vertex, backpackLocation) + heuristic.estimate(backpackLocation, goal) * backpackMultiplier;
+    }
+
+    // Turns the predecessor chain ending at goal into Position objects; these are the only ones created.
+    private CArrayList<Position> materialize(SearchStatePool states, int goal) {
+        CArrayList<Position> path = new CArrayList<>();
+        if (goal == -1) {
+            return path;
+        }
+        int length = 0;
+        for (int slot = goal; slot != -1; slot = states.pred[slot]) {
+            length++;
+        }
+        int[] chain = new int[length];
+        int index = length;
+        for (int slot = goal; slot != -1; slot = states.pred[slot]) {
+            chain[--index] = slot;
+        }
+        Position prev = null;
+        for (int i = 0; i < length; i++) {
+            int slot = chain[i];
+            int from = states.pred[slot] == -1 ? -1 : states.vertex[states.pred[slot]];
+            Position position = new Position(
+                    states.vertex[slot],
+                    states.carrying(slot),
+                    states.backpack[slot],
+                    states.cost[slot],
+                    prev,
+                    states.action(slot),
+                    from
+            );
+            path.add(position);
+            prev = position;
+        }
+        return path;
+    }
+
     public CArrayList<Position> computeFullSchedule(CArrayList<ScheduleEntry> schedule) {
+        return computeFullSchedule(schedule, false);
+    }
+
+    private CArrayList<Position> computeFullSchedule(CArrayList<ScheduleEntry> schedule, boolean pooled) {
         CArrayList<Position> fullPath = new CArrayList<>();
         if (schedule == null || schedule.isEmpty()) {
             return fullPath;
         }
 
-        int currentVertex = schedule.get(0).vertex;
-        boolean currentCarrying = true;
-        int currentBackpackLocation = currentVertex;
-
-        Position currentPosition = new Position(currentVertex, currentCarrying, currentBackpackLocation, 0.0, null, "start at " + currentVertex);
+        Position currentPosition = startPosition(schedule.get(0).vertex);
         fullPath.add(currentPosition);
 
         for (int i = 0; i < schedule.size() - 1; i++) {
-            int segmentStart = currentPosition.vertex;
-            int segmentEnd = schedule.get(i + 1).vertex;
-            boolean segStartCarrying = currentPosition.carrying;
-            boolean segEndCarrying = schedule.get(i + 1).requiresBackpack;
-
-            if (!segStartCarrying && segEndCarrying && segmentStart != currentBackpackLocation) {
-                CArrayList<Position> toBackpack = computeOptimalPathSegment(segmentStart, currentBackpackLocation, false, false);
-                if (!toBackpack.isEmpty()) {
-                    toBackpack.removeIndex(0);
-                    fullPath.addAll(toBackpack);
-                    currentPosition = fullPath.get(fullPath.size() - 1);
-                }
+            currentPosition = planLeg(currentPosition, schedule.get(i + 1), fullPath, pooled);
+        }
 
-                CArrayList<Position> pickUp = computeOptimalPathSegment(currentPosition.vertex, currentPosition.vertex, false, true);
-                if (!pickUp.isEmpty()) {
-                    pickUp.removeIndex(0);
-                    fullPath.addAll(pickUp);
-                    currentPosition = fullPath.get(fullPath.size() - 1);
-                }
+        return fullPath;
+    }
+
+    private Position startPosition(int vertex) {
+        return new Position(vertex, true, vertex, 0.0, null, Action.START, vertex);
+    }
+
+    // Appends the steps from currentPosition to the next stop, including the detour back to the
+    // backpack when the stop needs it, and returns the position the leg ends in.
+    private Position planLeg(Position currentPosition, ScheduleEntry next, CArrayList<Position> out, boolean pooled) {
+        int segmentStart = currentPosition.vertex;
+        int segmentEnd = next.vertex;
+        boolean segStartCarrying = currentPosition.carrying;
+        boolean segEndCarrying = next.requiresBackpack;
+        int currentBackpackLocation = backpackLocationOf(currentPosition);
+
+        if (!segStartCarrying && segEndCarrying && segmentStart != currentBackpackLocation) {
+            CArrayList<Position> toBackpack = pathSegment(segmentStart, currentBackpackLocation, false, false, pooled);
+            if (!toBackpack.isEmpty()) {
+                toBackpack.removeIndex(0);
+                out.addAll(toBackpack);
+                currentPosition = lastOf(out, currentPosition);
             }
 
-            CArrayList<Position> segment = computeOptimalPathSegment(currentPosition.vertex, segmentEnd, currentPosition.carrying, segEndCarrying);
-            if (!segment.isEmpty()) {
-                segment.removeIndex(0);
-                fullPath.addAll(segment);
-                currentPosition = fullPath.get(fullPath.size() - 1);
+            CArrayList<Position> pickUp = pathSegment(currentPosition.vertex, currentPosition.vertex, false, true, pooled);
+            if (!pickUp.isEmpty()) {
+                pickUp.removeIndex(0);
+                out.addAll(pickUp);
+                currentPosition = lastOf(out, currentPosition);
             }
+        }
+
+        CArrayList<Position> segment = pathSegment(currentPosition.vertex, segmentEnd, currentPosition.carrying, segEndCarrying,
+                pooled);
+        if (!segment.isEmpty()) {
+            segment.removeIndex(0);
+            out.addAll(segment);
+            currentPosition = lastOf(out, currentPosition);
+        }
+        return currentPosition;
+    }
+
+    private static Position lastOf(CArrayList<Position> path, Position fallback) {
+        return path.isEmpty() ? fallback : path.get(path.size() - 1);
+    }
 
-            if (!currentPosition.carrying) {
-                currentBackpackLocation = currentPosition.backpackLocation;
+    private static int backpackLocationOf(Position position) {
+        return position.carrying ? position.vertex : position.backpackLocation;
+    }
+
+    // Plans the whole schedule in one search instead of leg by leg. States are
+    // (next stop, vertex, carrying, backpackLocation); standing at the next stop with the carrying
+    // state it asks for moves on to the stop after it at no cost, and the search ends once the last
+    // stop is reached. The returned path has the same shape as computeFullSchedule's, but it is
+    // optimal for the whole itinerary and its costs accumulate from the first stop.
+    // Uses the pooled search, and the heuristic as a lower bound on the remaining stops when one is set.
+    public CArrayList<Position> computeOptimalSchedule(CArrayList<ScheduleEntry> schedule) {
+        CArrayList<Position> fullPath = new CArrayList<>();
+        if (schedule == null || schedule.isEmpty()) {
+            return fullPath;
+        }
+        int stops = schedule.size();
+        int[] stopVertex = new int[stops];
+        boolean[] stopCarrying = new boolean[stops];
+        for (int i = 0; i < stops; i++) {
+            stopVertex[i] = schedule.get(i).vertex;
+            stopCarrying[i] = schedule.get(i).requiresBackpack;
+        }
+        // remaining[k]: lower bound on walking stop k -> k + 1 -> ... -> last stop
+        double[] remaining = new double[stops + 1];
+        double factor = Math.min(1.0, backpackMultiplier);
+        for (int k = stops - 2; k >= 0 && heuristic != null; k--) {
+            remaining[k] = remaining[k + 1] + heuristic.estimate(stopVertex[k], stopVertex[k + 1]) * factor;
+        }
+
+        SearchStatePool states = borrowStates();
+        CArrayList<Position> path;
+        try {
+            path = searchSchedule(states, stopVertex, stopCarrying, remaining);
+        } finally {
+            returnStates(states);
+        }
+        if (path.isEmpty()) {
+            return fullPath;
+        }
+        for (int i = 0; i < path.size(); i++) {
+            Position position = path.get(i);
+            if (position.action != Action.ARRIVE) {
+                fullPath.add(position);
+            }
+        }
+        // relink around the dropped ARRIVE steps and label the start like computeFullSchedule does
+        for (int i = 1; i < fullPath.size(); i++) {
+            fullPath.get(i).prev = fullPath.get(i - 1);
+        }
+        fullPath.get(0).from = stopVertex[0];
+        return fullPath;
+    }
+
+    // The search behind computeOptimalSchedule; returns its path including ARRIVE steps, or an empty one.
+    private CArrayList<Position> searchSchedule(SearchStatePool states, int[] stopVertex, boolean[] stopCarrying,
+                                                double[] remaining) {
+        int stops = stopVertex.length;
+        states.reset(graph.snapshot());
+        int start = stopVertex[0];
+        offerStage(states, stopVertex, remaining, 1, start, true, start, 0.0, -1, Action.START);
+
+        int goal = -1;
+        long expanded = 0;
+        while (!states.heap.isEmpty()) {
+            int current = states.heap.removeMin();
+            expanded++;
+            checkInterrupted(expanded);
+            int stage = states.stage[current];
+            int vertex = states.vertex[current];
+            boolean carrying = states.carrying(current);
+            int backpackLocation = states.backpack[current];
+            double cost = states.cost[current];
+
+            if (stage == stops) {
+                goal = current;
+                break;
+            }
+            if (vertex == stopVertex[stage] && carrying == stopCarrying[stage]) {
+                offerStage(states, stopVertex, remaining, stage + 1, vertex, carrying, backpackLocation, cost, current, Action.ARRIVE);
+                continue;
+            }
+
+            if (carrying) {
+                offerStage(states, stopVertex, remaining, stage, vertex, false, vertex, cost + 0.01, current, Action.DROP);
+            } else if (vertex == backpackLocation) {
+                offerStage(states, stopVertex, remaining, stage, vertex, true, vertex, cost + 0.01, current, Action.PICK_UP);
+            }
+
+            double stepFactor = carrying ? backpackMultiplier : 1.0;
+            EdgeCursor edges = states.edges;
+            edges.reset(vertex);
+            while (edges.next()) {
+                int next = edges.to();
+                offerStage(states, stopVertex, remaining, stage, next, carrying, carrying ? next : backpackLocation,
+                        cost + edges.weight() * stepFactor, current, Action.MOVE);
+            }
+        }
+        expandedStates.add(expanded);
+        return materialize(states, goal);
+    }
+
+    // While carrying, the backpack moves with the traveller, so carrying states store their own vertex
+    // as backpackLocation; that keeps one state per (stage, vertex) instead of one per old drop point.
+    private void offerStage(SearchStatePool states, int[] stopVertex, double[] remaining, int stage, int vertex,
+                            boolean carrying, int backpackLocation, double cost, int pred, Action action) {
+        long key = stateKey(stage, vertex, carrying, backpackLocation);
+        double estimate = 0;
+        if (heuristic != null && stage < stopVertex.length) {
+            estimate = heuristic.estimate(vertex, stopVertex[stage]) * Math.min(1.0, backpackMultiplier) + remaining[stage];
+        }
+        int slot = states.index.get(key);
+        if (slot == -1) {
+            slot = states.add(stage, vertex, carrying, backpackLocation, cost, pred, action);
+            states.index.put(key, slot);
+            states.heap.insert(slot, cost + estimate);
+        } else if (cost < states.cost[slot] && states.heap.contains(slot)) {
+            states.set(slot, cost, pred, carrying, action);
+            states.heap.decreaseKey(slot, cost + estimate);
+        }
+    }
+
+    public CArrayList<CArrayList<Position>> computeSchedules(CArrayList<CArrayList<ScheduleEntry>> schedules) {
+        return computeSchedules(schedules, ForkJoinPool.commonPool(), false);
+    }
+
+    // Plans every schedule concurrently on the given executor (a ForkJoinPool, a fixed pool, or a
+    // virtual-thread executor) and returns the paths in input order. With optimal set, each schedule
+    // goes through computeOptimalSchedule instead of computeFullSchedule. Batches always search with
+    // pooled SearchStatePools, even on a navigator left at heapArity 0, so planning many
+    // schedules does not allocate a queue and a Position per state for every segment. Costs match
+    // computeFullSchedule; among equally cheap routes the two searches may pick different ones.
+    public CArrayList<CArrayList<Position>> computeSchedules(CArrayList<CArrayList<ScheduleEntry>> schedules,
+                                                             ExecutorService executor, boolean optimal) {
+        CArrayList<Future<CArrayList<Position>>> pending = new CArrayList<>(Math.max(1, schedules.size()));
+        for (int i = 0; i < schedules.size(); i++) {
+            CArrayList<ScheduleEntry> schedule = schedules.get(i);
+            pending.add(executor.submit(() -> optimal ? computeOptimalSchedule(schedule) : computeFullSchedule(schedule, true)));
+        }
+
+        CArrayList<CArrayList<Position>> results = new CArrayList<>(Math.max(1, schedules.size()));
+        try {
+            for (int i = 0; i < pending.size(); i++) {
+                results.add(pending.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            cancelAll(pending);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch routing interrupted.", e);
+        } catch (ExecutionException e) {
+            cancelAll(pending);
+            throw new IllegalStateException("Batch routing failed.", e.getCause());
+        }
+        return results;
+    }
+
+    private static void cancelAll(CArrayList<Future<CArrayList<Position>>> pending) {
+        for (int i = 0; i < pending.size(); i++) {
+            pending.get(i).cancel(true);
+        }
+    }
+
+    public IncrementalPlan newIncrementalPlan() {
+        return new IncrementalPlan();
+    }
+
+    // Schedule that is edited one stop at a time. It keeps each leg's steps and the position reached
+    // at every stop, so appending a stop plans one leg and changing stop k re-plans from the leg into k.
+    // Re-planning stops early once a leg ends in the same state as before, since later legs start
+    // from the same place. getFullPath() matches computeFullSchedule over the same stops.
+    // Not thread-safe; a plan interrupted mid-search keeps every finished leg and resumes on the next call.
+    public class IncrementalPlan {
+        private final CArrayList<ScheduleEntry> stops = new CArrayList<>();
+        // boundaries.get(k) is the position reached at stop k; legs.get(k) leads from stop k to stop k + 1
+        private final CArrayList<Position> boundaries = new CArrayList<>();
+        private final CArrayList<CArrayList<Position>> legs = new CArrayList<>();
+        private boolean[] staleLegs = new boolean[8];
+        private long legsPlanned = 0;
+
+        public void appendStop(int vertex, boolean requiresBackpack) {
+            stops.add(new ScheduleEntry(vertex, requiresBackpack));
+            if (stops.size() == 1) {
+                boundaries.add(startPosition(vertex));
             } else {
-                currentBackpackLocation = currentPosition.vertex;
+                markStale(stops.size() - 2);
             }
         }
 
-        return fullPath;
+        public void setRequiresBackpack(int stop, boolean requiresBackpack) {
+            ScheduleEntry entry = stops.get(stop);
+            if (entry.requiresBackpack == requiresBackpack) {
+                return;
+            }
+            stops.set(stop, new ScheduleEntry(entry.vertex, requiresBackpack));
+            // the first stop always starts with the backpack, so only later stops affect a leg
+            if (stop > 0) {
+                markStale(stop - 1);
+            }
+        }
+
+        public void removeLastStop() {
+            int last = stops.size() - 1;
+            stops.removeIndex(last);
+            if (boundaries.size() > last) {
+                boundaries.removeIndex(last);
+            }
+            if (last > 0 && legs.size() > last - 1) {
+                legs.removeIndex(last - 1);
+            }
+        }
+
+        public void clear() {
+            stops.clear();
+            boundaries.clear();
+            legs.clear();
+        }
+
+        // Makes the stops equal to schedule, keeping the legs of the longest unchanged prefix.
+        public void setStops(CArrayList<ScheduleEntry> schedule) {
+            int common = 0;
+            while (common < stops.size() && common < schedule.size() &&
+                    stops.get(common).vertex == schedule.get(common).vertex) {
+                common++;
+            }
+            while (stops.size() > common) {
+                removeLastStop();
+            }
+            for (int i = 0; i < common; i++) {
+                setRequiresBackpack(i, schedule.get(i).requiresBackpack);
+            }
+            for (int i = common; i < schedule.size(); i++) {
+                appendStop(schedule.get(i).vertex, schedule.get(i).requiresBackpack);
+            }
+        }
+
+        public int size() {
+            return stops.size();
+        }
+
+        public ScheduleEntry getStop(int stop) {
+            return stops.get(stop);
+        }
+
+        public CArrayList<Position> getFullPath() {
+            return getFullPath(null);
+        }
+
+        // Same as getFullPath(), also handing progress the path up to each leg as soon as it is planned.
+        public CArrayList<Position> getFullPath(Consumer<CArrayList<Position>> progress) {
+            replan(progress);
+            return pathThrough(legs.size());
+        }
+
+        private CArrayList<Position> pathThrough(int legCount) {
+            CArrayList<Position> fullPath = new CArrayList<>();
+            if (stops.isEmpty()) {
+                return fullPath;
+            }
+            fullPath.add(boundaries.get(0));
+            for (int i = 0; i < legCount; i++) {
+                fullPath.addAll(legs.get(i));
+            }
+            return fullPath;
+        }
+
+        // Steps from stop k to stop k + 1, without the position at stop k.
+        public CArrayList<Position> getLeg(int leg) {
+            replan(null);
+            CArrayList<Position> steps = new CArrayList<>();
+            steps.addAll(legs.get(leg));
+            return steps;
+        }
+
+        public Position getPositionAt(int stop) {
+            replan(null);
+            return boundaries.get(stop);
+        }
+
+        public int getBackpackLocationAt(int stop) {
+            return backpackLocationOf(getPositionAt(stop));
+        }
+
+        // Number of legs searched so far; a cheap way to see how much an edit cost.
+        public long getLegsPlanned() {
+            return legsPlanned;
+        }
+
+        private void markStale(int leg) {
+            if (leg >= staleLegs.length) {
+                boolean[] grown = new boolean[Math.max(leg + 1, staleLegs.length * 2)];
+                System.arraycopy(staleLegs, 0, grown, 0, staleLegs.length);
+                staleLegs = grown;
+            }
+            staleLegs[leg] = true;
+        }
+
+        // A changed boundary marks the next leg stale rather than being carried in a local,
+        // so an interrupted replan leaves nothing behind that the next call would miss.
+        private void replan(Consumer<CArrayList<Position>> progress) {
+            for (int leg = 0; leg < stops.size() - 1; leg++) {
+                boolean missing = leg >= legs.size();
+                if (!missing && !staleLegs[leg]) {
+                    continue;
+                }
+                CArrayList<Position> steps = new CArrayList<>();
+                Position reached = planLeg(boundaries.get(leg), stops.get(leg + 1), steps, false);
+                legsPlanned++;
+
+                boolean boundaryChanged;
+                if (missing) {
+                    legs.add(steps);
+                    boundaries.add(reached);
+                    boundaryChanged = true;
+                } else {
+                    Position previous = boundaries.get(leg + 1);
+                    boundaryChanged = previous.vertex != reached.vertex ||
+                            previous.carrying != reached.carrying ||
+                            previous.backpackLocation != reached.backpackLocation;
+                    legs.set(leg, steps);
+                    boundaries.set(leg + 1, reached);
+                }
+                staleLegs[leg] = false;
+                if (boundaryChanged && leg + 1 < legs.size()) {
+                    markStale(leg + 1);
+                }
+                if (progress != null) {
+                    progress.accept(pathThrough(leg + 1));
+                }
+            }
+        }
     }
 
     public void printPath(CArrayList<Position> path) {
@@ -220,7 +827,7 @@ public class CampusNavigator{
                     ", Carrying: " + position.carrying +
                     ", Backpack at: " + position.backpackLocation +
                     ", Cost: " + position.cost +
-                    ", Action: " + position.action);
+                    ", Action: " + position.describeAction());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,245 @@
+import java.util.Arrays;
+
+// Frozen graph in compressed sparse row form: the edges leaving vertex v are
+// targets[offsets[v]] .. targets[offsets[v + 1] - 1], with matching weights.
+// Undirected graphs store both directions, in the same per-vertex order as AdjacencyListGraph.
+public class CompressedSparseRowGraph implements Graph {
+    private final int vertices;
+    private final boolean isDirected;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    CompressedSparseRowGraph(int vertices, boolean isDirected, int[] offsets, int[] targets, double[] weights) {
+        this.vertices = vertices;
+        this.isDirected = isDirected;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    //O(V+E)
+    public static CompressedSparseRowGraph fromAdjacencyList(AdjacencyListGraph graph) {
+        int n = graph.getVertices();
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + graph.getNeighbors(i).size();
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int index = offsets[i];
+            for (Edge edge : graph.getNeighbors(i)) {
+                targets[index] = edge.to;
+                weights[index] = edge.weight;
+                index++;
+            }
+        }
+        return new CompressedSparseRowGraph(n, graph.isDirected(), offsets, targets, weights);
+    }
+
+    //O(degree)
+    @Override
+    public boolean hasEdge(int from, int to) {
+        checkVertex(from);
+        for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+            if (targets[i] == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //O(degree)
+    public double getEdgeWeight(int from, int to) {
+        checkVertex(from);
+        for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+            if (targets[i] == to) {
+                return weights[i];
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public void printNeighbors(int vertex) {
+        checkVertex(vertex);
+        for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+            System.out.print(targets[i] + " ");
+        }
+        System.out.println();
+    }
+
+    //O(V)
+    @Override
+    public void printMaxDegree() {
+        int maxDegree = -1;
+        int maxVertex = -1;
+        for (int i = 0; i < vertices; i++) {
+            int degree = degree(i);
+            if (degree > maxDegree) {
+                maxDegree = degree;
+                maxVertex = i;
+            }
+        }
+        System.out.println(maxVertex + " " + maxDegree);
+    }
+
+    public int degree(int vertex) {
+        checkVertex(vertex);
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    @Override
+    public int getVertices() {
+        return vertices;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return isDirected;
+    }
+
+    public int getEdgeCount() {
+        return isDirected ? targets.length : targets.length / 2;
+    }
+
+    public int firstEdge(int vertex) {
+        checkVertex(vertex);
+        return offsets[vertex];
+    }
+
+    public int lastEdge(int vertex) {
+        checkVertex(vertex);
+        return offsets[vertex + 1];
+    }
+
+    public int edgeTarget(int index) {
+        return targets[index];
+    }
+
+    public double edgeWeight(int index) {
+        return weights[index];
+    }
+
+    @Override
+    public EdgeCursor edgeCursor() {
+        return new RowEdgeCursor();
+    }
+
+    // Never changes; the graph is frozen.
+    @Override
+    public long getVersion() {
+        return 0;
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= vertices) {
+            throw new IndexOutOfBoundsException("Vertex index out of bounds.");
+        }
+    }
+
+    private class RowEdgeCursor implements EdgeCursor {
+        private int index;
+        private int end;
+
+        @Override
+        public void reset(int vertex) {
+            checkVertex(vertex);
+            index = offsets[vertex] - 1;
+            end = offsets[vertex + 1];
+        }
+
+        @Override
+        public boolean next() {
+            if (index + 1 >= end) {
+                index = end;
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        @Override
+        public int to() {
+            return targets[index];
+        }
+
+        @Override
+        public double weight() {
+            return weights[index];
+        }
+    }
+
+    // Collects an edge stream into growable primitive arrays, then lays it out row by row.
+    // Edges of the same vertex keep their insertion order.
+    public static class Builder {
+        private final int vertices;
+        private final boolean isDirected;
+        private int[] from;
+        private int[] to;
+        private double[] weight;
+        private int size = 0;
+
+        public Builder(int vertices, boolean isDirected) {
+            this(vertices, isDirected, 16);
+        }
+
+        public Builder(int vertices, boolean isDirected, int expectedEdges) {
+            this.vertices = vertices;
+            this.isDirected = isDirected;
+            int capacity = Math.max(16, isDirected ? expectedEdges : expectedEdges * 2);
+            this.from = new int[capacity];
+            this.to = new int[capacity];
+            this.weight = new double[capacity];
+        }
+
+        public Builder addEdge(int from, int to) {
+            return addEdge(from, to, 1);
+        }
+
+        public Builder addEdge(int from, int to, double weight) {
+            if (from < 0 || to < 0 || from >= vertices || to >= vertices) {
+                throw new IndexOutOfBoundsException("Vertex index out of bounds.");
+            }
+            append(from, to, weight);
+            if (!isDirected) {
+                append(to, from, weight);
+            }
+            return this;
+        }
+
+        private void append(int u, int v, double w) {
+            if (size == from.length) {
+                int newCapacity = from.length * 2;
+                from = Arrays.copyOf(from, newCapacity);
+                to = Arrays.copyOf(to, newCapacity);
+                weight = Arrays.copyOf(weight, newCapacity);
+            }
+            from[size] = u;
+            to[size] = v;
+            weight[size] = w;
+            size++;
+        }
+
+        //O(V+E) counting sort on the source vertex
+        public CompressedSparseRowGraph build() {
+            int[] offsets = new int[vertices + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[from[i] + 1]++;
+            }
+            for (int i = 0; i < vertices; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] next = Arrays.copyOf(offsets, vertices);
+            int[] targets = new int[size];
+            double[] weights = new double[size];
+            for (int i = 0; i < size; i++) {
+                int slot = next[from[i]]++;
+                targets[slot] = to[i];
+                weights[slot] = weight[i];
+            }
+            return new CompressedSparseRowGraph(vertices, isDirected, offsets, targets, weights);
+        }
+    }
+}
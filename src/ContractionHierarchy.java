@@ -0,0 +1,532 @@
+import java.util.Arrays;
+
+// Contraction hierarchy over a static graph. Preprocessing removes vertices one at a time, least
+// important first, and adds a shortcut u -> w whenever u -> v -> w was the only shortest way
+// around the removed v. A query then only walks upward in that order from both ends and meets at
+// the highest vertex of the path, which touches a few hundred vertices even on very large maps.
+//
+// Every edge (original or shortcut) has an id; a shortcut remembers the two edges it replaces,
+// so unpacking a query result gives the same vertices and step weights as Dijkstras.
+// The hierarchy is immutable and can be shared; each thread queries through its own Query.
+public class ContractionHierarchy {
+    private final int vertices;
+    private final boolean isDirected;
+    private final int[] rank;
+    // edges leaving v towards higher-ranked vertices: upEdges[upOffsets[v] .. upOffsets[v + 1] - 1]
+    private final int[] upOffsets;
+    private final int[] upEdges;
+    // edges entering v from higher-ranked vertices, walked backwards by the target-side search
+    private final int[] downOffsets;
+    private final int[] downEdges;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final double[] edgeWeight;
+    // the two edges a shortcut stands for; -1 for original edges
+    private final int[] edgeFirst;
+    private final int[] edgeSecond;
+    private final int shortcuts;
+
+    private ContractionHierarchy(Contractor contractor) {
+        this.vertices = contractor.n;
+        this.isDirected = contractor.isDirected;
+        this.rank = contractor.rank;
+        this.upOffsets = new int[vertices + 1];
+        this.downOffsets = new int[vertices + 1];
+        for (int v = 0; v < vertices; v++) {
+            upOffsets[v + 1] = upOffsets[v] + contractor.upRows[v].length;
+            downOffsets[v + 1] = downOffsets[v] + contractor.downRows[v].length;
+        }
+        this.upEdges = new int[upOffsets[vertices]];
+        this.downEdges = new int[downOffsets[vertices]];
+        for (int v = 0; v < vertices; v++) {
+            System.arraycopy(contractor.upRows[v], 0, upEdges, upOffsets[v], contractor.upRows[v].length);
+            System.arraycopy(contractor.downRows[v], 0, downEdges, downOffsets[v], contractor.downRows[v].length);
+        }
+        int edges = contractor.edgeCount;
+        this.edgeFrom = Arrays.copyOf(contractor.from, edges);
+        this.edgeTo = Arrays.copyOf(contractor.to, edges);
+        this.edgeWeight = Arrays.copyOf(contractor.weight, edges);
+        this.edgeFirst = Arrays.copyOf(contractor.first, edges);
+        this.edgeSecond = Arrays.copyOf(contractor.second, edges);
+        this.shortcuts = contractor.shortcuts;
+    }
+
+    //O(V * witness search) in practice; parallel edges keep their lightest copy and self-loops are dropped
+    public static ContractionHierarchy build(Graph graph) {
+        Contractor contractor = new Contractor(graph.snapshot());
+        contractor.contractAll();
+        return new ContractionHierarchy(contractor);
+    }
+
+    public int getVertices() {
+        return vertices;
+    }
+
+    public boolean isDirected() {
+        return isDirected;
+    }
+
+    // Position of vertex in the contraction order; higher is more important.
+    public int rankOf(int vertex) {
+        checkVertex(vertex);
+        return rank[vertex];
+    }
+
+    public int getShortcutCount() {
+        return shortcuts;
+    }
+
+    // Edges the two upward searches can use, shortcuts included.
+    public int getSearchEdgeCount() {
+        return upEdges.length + downEdges.length;
+    }
+
+    public Query newQuery() {
+        return new Query();
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= vertices) {
+            throw new IndexOutOfBoundsException("Vertex index out of bounds.");
+        }
+    }
+
+    // Reusable query state, like Dijkstras: one per thread, any number of queries each.
+    public class Query {
+        private final double[] forwardDist = new double[vertices];
+        private final double[] backwardDist = new double[vertices];
+        private final int[] forwardEdge = new int[vertices];
+        private final int[] backwardEdge = new int[vertices];
+        private final int[] forwardIn = new int[vertices];
+        private final int[] backwardIn = new int[vertices];
+        private final IndexedMinHeap forward = new IndexedMinHeap(vertices, 4);
+        private final IndexedMinHeap backward = new IndexedMinHeap(vertices, 4);
+        private int generation = 0;
+        private int settled = 0;
+        private int[] stack = new int[64];
+
+        private Query() {
+        }
+
+        public ShortestPath findShortestPath(int source, int target) {
+            int meet = search(source, target);
+            if (meet == -1) {
+                return ShortestPath.notFound(source, target);
+            }
+            // edge ids from source up to meet, then from meet down to target
+            int upLength = 0;
+            for (int v = meet; v != source; v = edgeFrom[forwardEdge[v]]) {
+                upLength++;
+            }
+            int downLength = 0;
+            for (int v = meet; v != target; v = edgeTo[backwardEdge[v]]) {
+                downLength++;
+            }
+            int[] path = new int[upLength + downLength];
+            int index = upLength;
+            for (int v = meet; v != source; v = edgeFrom[forwardEdge[v]]) {
+                path[--index] = forwardEdge[v];
+            }
+            index = upLength;
+            for (int v = meet; v != target; v = edgeTo[backwardEdge[v]]) {
+                path[index++] = backwardEdge[v];
+            }
+            return unpack(source, target, path);
+        }
+
+        // Distance only, without unpacking the shortcuts.
+        public double distance(int source, int target) {
+            int meet = search(source, target);
+            return meet == -1 ? Double.POSITIVE_INFINITY : forwardDist[meet] + backwardDist[meet];
+        }
+
+        // Vertices settled by the last query, both directions together.
+        public int getLastSettled() {
+            return settled;
+        }
+
+        // Upward Dijkstra from both ends; each side stops once its queue minimum is no better
+        // than the best meeting point found. Returns the meeting vertex, or -1 if there is none.
+        private int search(int source, int target) {
+            checkVertex(source);
+            checkVertex(target);
+            startQuery();
+            forwardIn[source] = generation;
+            forwardDist[source] = 0;
+            forwardEdge[source] = -1;
+            forward.insert(source, 0);
+            backwardIn[target] = generation;
+            backwardDist[target] = 0;
+            backwardEdge[target] = -1;
+            backward.insert(target, 0);
+
+            double best = Double.POSITIVE_INFINITY;
+            int meet = -1;
+            while (!forward.isEmpty() || !backward.isEmpty()) {
+                boolean upward = backward.isEmpty() ||
+                        (!forward.isEmpty() && forward.minPriority() <= backward.minPriority());
+                IndexedMinHeap heap = upward ? forward : backward;
+                if (heap.minPriority() >= best) {
+                    break;
+                }
+                int v = heap.removeMin();
+                settled++;
+                if (upward) {
+                    if (backwardIn[v] == generation && forwardDist[v] + backwardDist[v] < best) {
+                        best = forwardDist[v] + backwardDist[v];
+                        meet = v;
+                    }
+                    if (stalled(v, forwardDist, forwardIn, downOffsets, downEdges, edgeFrom)) {
+                        continue;
+                    }
+                    for (int i = upOffsets[v]; i < upOffsets[v + 1]; i++) {
+                        int edge = upEdges[i];
+                        int next = edgeTo[edge];
+                        double candidate = forwardDist[v] + edgeWeight[edge];
+                        if (forwardIn[next] != generation || candidate < forwardDist[next]) {
+                            forwardIn[next] = generation;
+                            forwardDist[next] = candidate;
+                            forwardEdge[next] = edge;
+                            forward.insertOrDecrease(next, candidate);
+                        }
+                    }
+                } else {
+                    if (forwardIn[v] == generation && forwardDist[v] + backwardDist[v] < best) {
+                        best = forwardDist[v] + backwardDist[v];
+                        meet = v;
+                    }
+                    if (stalled(v, backwardDist, backwardIn, upOffsets, upEdges, edgeTo)) {
+                        continue;
+                    }
+                    for (int i = downOffsets[v]; i < downOffsets[v + 1]; i++) {
+                        int edge = downEdges[i];
+                        int next = edgeFrom[edge];
+                        double candidate = backwardDist[v] + edgeWeight[edge];
+                        if (backwardIn[next] != generation || candidate < backwardDist[next]) {
+                            backwardIn[next] = generation;
+                            backwardDist[next] = candidate;
+                            backwardEdge[next] = edge;
+                            backward.insertOrDecrease(next, candidate);
+                        }
+                    }
+                }
+            }
+            return meet;
+        }
+
+        // Stall-on-demand: if a higher-ranked vertex this search has already reached offers v a
+        // shorter distance through an edge pointing down into v, v's label is not a shortest
+        // distance and relaxing its edges cannot help. The edges checked are the ones the search
+        // in the other direction walks upward.
+        private boolean stalled(int v, double[] dist, int[] reachedIn, int[] offsets, int[] edges, int[] endpoint) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int edge = edges[i];
+                int higher = endpoint[edge];
+                if (reachedIn[higher] == generation && dist[higher] + edgeWeight[edge] < dist[v]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void startQuery() {
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(forwardIn, 0);
+                Arrays.fill(backwardIn, 0);
+                generation = 0;
+            }
+            generation++;
+            settled = 0;
+            forward.clear();
+            backward.clear();
+        }
+
+        // Expands each shortcut into the two edges it replaces until only original edges are left.
+        private ShortestPath unpack(int source, int target, int[] path) {
+            int[] steps = new int[Math.max(1, path.length)];
+            int count = 0;
+            for (int i = 0; i < path.length; i++) {
+                int depth = 0;
+                stack = push(stack, depth++, path[i]);
+                while (depth > 0) {
+                    int edge = stack[--depth];
+                    if (edgeFirst[edge] == -1) {
+                        if (count == steps.length) {
+                            steps = Arrays.copyOf(steps, count * 2);
+                        }
+                        steps[count++] = edge;
+                    } else {
+                        stack = push(stack, depth++, edgeSecond[edge]);
+                        stack = push(stack, depth++, edgeFirst[edge]);
+                    }
+                }
+            }
+            int[] pathVertices = new int[count + 1];
+            double[] stepWeights = new double[count];
+            pathVertices[0] = source;
+            for (int i = 0; i < count; i++) {
+                pathVertices[i + 1] = edgeTo[steps[i]];
+                stepWeights[i] = edgeWeight[steps[i]];
+            }
+            return new ShortestPath(source, target, pathVertices, stepWeights);
+        }
+    }
+
+    private static int[] push(int[] stack, int depth, int value) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth] = value;
+        return stack;
+    }
+
+    // Mutable working graph used only while the hierarchy is built. Each live vertex keeps the ids
+    // of its edges to other live vertices; contracting a vertex freezes its rows and unlinks it.
+    private static final class Contractor {
+        // settled-vertex budget of one witness search; a search that runs out only costs an extra shortcut
+        private static final int WITNESS_LIMIT = 128;
+
+        final int n;
+        final boolean isDirected;
+        int[] from = new int[16];
+        int[] to = new int[16];
+        double[] weight = new double[16];
+        int[] first = new int[16];
+        int[] second = new int[16];
+        int edgeCount = 0;
+        int shortcuts = 0;
+
+        private final int[][] out;
+        private final int[][] in;
+        private final int[] outSize;
+        private final int[] inSize;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+        final int[] rank;
+        final int[][] upRows;
+        final int[][] downRows;
+
+        private final double[] dist;
+        private final int[] reachedIn;
+        private final int[] targetIn;
+        private int generation = 0;
+        private final IndexedMinHeap heap;
+
+        Contractor(Graph graph) {
+            this.n = graph.getVertices();
+            this.isDirected = graph.isDirected();
+            this.out = new int[n][];
+            this.in = new int[n][];
+            this.outSize = new int[n];
+            this.inSize = new int[n];
+            this.contracted = new boolean[n];
+            this.contractedNeighbors = new int[n];
+            this.rank = new int[n];
+            this.upRows = new int[n][];
+            this.downRows = new int[n][];
+            this.dist = new double[n];
+            this.reachedIn = new int[n];
+            this.targetIn = new int[n];
+            this.heap = new IndexedMinHeap(n, 4);
+            for (int v = 0; v < n; v++) {
+                out[v] = new int[4];
+                in[v] = new int[4];
+            }
+            // undirected graphs already list both directions in their rows
+            EdgeCursor edges = graph.edgeCursor();
+            for (int v = 0; v < n; v++) {
+                edges.reset(v);
+                while (edges.next()) {
+                    if (edges.to() != v) {
+                        addEdge(v, edges.to(), edges.weight(), -1, -1);
+                    }
+                }
+            }
+        }
+
+        void contractAll() {
+            IndexedMinHeap order = new IndexedMinHeap(n, 4);
+            for (int v = 0; v < n; v++) {
+                order.insert(v, priority(v));
+            }
+            int next = 0;
+            while (!order.isEmpty()) {
+                int v = order.removeMin();
+                // priorities go stale as neighbours are contracted; re-check before committing to v
+                double current = priority(v);
+                if (!order.isEmpty() && current > order.minPriority()) {
+                    order.insert(v, current);
+                    continue;
+                }
+                rank[v] = next++;
+                contract(v);
+                // neighbours are only re-scored lazily when they reach the top of the queue;
+                // re-simulating all of them after every contraction triples the build time
+                for (int i = 0; i < upRows[v].length; i++) {
+                    contractedNeighbors[to[upRows[v][i]]]++;
+                }
+                for (int i = 0; i < downRows[v].length; i++) {
+                    contractedNeighbors[from[downRows[v][i]]]++;
+                }
+            }
+        }
+
+        // Edge difference (shortcuts added minus edges removed), weighted double, plus the number
+        // of contracted neighbours, which spreads contraction evenly over the graph.
+        private double priority(int v) {
+            int added = shortcutsFor(v, false);
+            return 2 * (added - (outSize[v] + inSize[v])) + contractedNeighbors[v];
+        }
+
+        private void contract(int v) {
+            shortcutsFor(v, true);
+            upRows[v] = Arrays.copyOf(out[v], outSize[v]);
+            downRows[v] = Arrays.copyOf(in[v], inSize[v]);
+            contracted[v] = true;
+            for (int edge : upRows[v]) {
+                remove(in, inSize, to[edge], edge);
+            }
+            for (int edge : downRows[v]) {
+                remove(out, outSize, from[edge], edge);
+            }
+        }
+
+        // For every u -> v -> w, checks whether a path from u to w avoiding v is at least as short;
+        // if not, u -> w needs a shortcut. Adds them when commit is set, otherwise only counts them.
+        private int shortcutsFor(int v, boolean commit) {
+            int count = 0;
+            int inCount = inSize[v];
+            int outCount = outSize[v];
+            for (int i = 0; i < inCount; i++) {
+                int inEdge = in[v][i];
+                int u = from[inEdge];
+                double maxCost = -1;
+                for (int j = 0; j < outCount; j++) {
+                    int outEdge = out[v][j];
+                    if (to[outEdge] != u) {
+                        maxCost = Math.max(maxCost, weight[inEdge] + weight[outEdge]);
+                    }
+                }
+                if (maxCost < 0) {
+                    continue;
+                }
+                int targets = 0;
+                for (int j = 0; j < outCount; j++) {
+                    int w = to[out[v][j]];
+                    if (w != u && targetIn[w] != generation + 1) {
+                        targetIn[w] = generation + 1;
+                        targets++;
+                    }
+                }
+                witnessSearch(u, v, maxCost, targets);
+                for (int j = 0; j < outCount; j++) {
+                    int outEdge = out[v][j];
+                    int w = to[outEdge];
+                    if (w == u) {
+                        continue;
+                    }
+                    double via = weight[inEdge] + weight[outEdge];
+                    double witness = reachedIn[w] == generation ? dist[w] : Double.POSITIVE_INFINITY;
+                    if (witness > via) {
+                        count++;
+                        if (commit) {
+                            addEdge(u, w, via, inEdge, outEdge);
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        // Bounded Dijkstra over live vertices, skipping the one being contracted. Stops once every
+        // vertex marked as a target for this search is settled.
+        private void witnessSearch(int source, int skip, double maxCost, int targets) {
+            generation++;
+            heap.clear();
+            reachedIn[source] = generation;
+            dist[source] = 0;
+            heap.insert(source, 0);
+            int settled = 0;
+            while (!heap.isEmpty() && heap.minPriority() <= maxCost && settled++ < WITNESS_LIMIT) {
+                int x = heap.removeMin();
+                if (targetIn[x] == generation && --targets == 0) {
+                    break;
+                }
+                for (int i = 0; i < outSize[x]; i++) {
+                    int edge = out[x][i];
+                    int y = to[edge];
+                    if (y == skip) {
+                        continue;
+                    }
+                    double candidate = dist[x] + weight[edge];
+                    if (reachedIn[y] != generation || candidate < dist[y]) {
+                        reachedIn[y] = generation;
+                        dist[y] = candidate;
+                        heap.insertOrDecrease(y, candidate);
+                    }
+                }
+            }
+        }
+
+        // Adds u -> w, or replaces the existing u -> w edge if the new one is lighter.
+        private void addEdge(int u, int w, double edgeWeight, int firstEdge, int secondEdge) {
+            int existing = -1;
+            for (int i = 0; i < outSize[u]; i++) {
+                if (to[out[u][i]] == w) {
+                    existing = i;
+                    break;
+                }
+            }
+            if (existing != -1 && weight[out[u][existing]] <= edgeWeight) {
+                return;
+            }
+            if (edgeCount == from.length) {
+                int capacity = edgeCount * 2;
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+                first = Arrays.copyOf(first, capacity);
+                second = Arrays.copyOf(second, capacity);
+            }
+            int id = edgeCount++;
+            from[id] = u;
+            to[id] = w;
+            weight[id] = edgeWeight;
+            first[id] = firstEdge;
+            second[id] = secondEdge;
+            if (firstEdge != -1) {
+                shortcuts++;
+            }
+            if (existing != -1) {
+                int old = out[u][existing];
+                out[u][existing] = id;
+                for (int i = 0; i < inSize[w]; i++) {
+                    if (in[w][i] == old) {
+                        in[w][i] = id;
+                        break;
+                    }
+                }
+                return;
+            }
+            append(out, outSize, u, id);
+            append(in, inSize, w, id);
+        }
+
+        private static void append(int[][] rows, int[] sizes, int vertex, int edge) {
+            if (sizes[vertex] == rows[vertex].length) {
+                rows[vertex] = Arrays.copyOf(rows[vertex], sizes[vertex] * 2);
+            }
+            rows[vertex][sizes[vertex]++] = edge;
+        }
+
+        private static void remove(int[][] rows, int[] sizes, int vertex, int edge) {
+            int[] row = rows[vertex];
+            for (int i = 0; i < sizes[vertex]; i++) {
+                if (row[i] == edge) {
+                    row[i] = row[--sizes[vertex]];
+                    return;
+                }
+            }
+        }
+    }
+}
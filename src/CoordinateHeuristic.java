@@ -0,0 +1,39 @@
+// Straight-line distance heuristic for graphs whose vertices have map coordinates.
+// Edge weights are not in pixels, so the Euclidean distance is scaled by the smallest
+// weight-per-pixel ratio over all edges. That keeps it below every path's weight and consistent.
+public class CoordinateHeuristic implements Heuristic {
+    private final double[] x;
+    private final double[] y;
+    private final double scale;
+
+    //O(V+E)
+    public CoordinateHeuristic(Graph graph, double[] x, double[] y) {
+        if (x.length != graph.getVertices() || y.length != graph.getVertices()) {
+            throw new IllegalArgumentException("Need one coordinate pair per vertex.");
+        }
+        this.x = x;
+        this.y = y;
+
+        double minRatio = Double.POSITIVE_INFINITY;
+        EdgeCursor edges = graph.edgeCursor();
+        for (int u = 0; u < graph.getVertices(); u++) {
+            edges.reset(u);
+            while (edges.next()) {
+                double length = Math.hypot(x[u] - x[edges.to()], y[u] - y[edges.to()]);
+                if (length > 0) {
+                    minRatio = Math.min(minRatio, edges.weight() / length);
+                }
+            }
+        }
+        this.scale = minRatio == Double.POSITIVE_INFINITY ? 0 : Math.max(0, minRatio);
+    }
+
+    @Override
+    public double estimate(int vertex, int goal) {
+        return scale * Math.hypot(x[vertex] - x[goal], y[vertex] - y[goal]);
+    }
+
+    public double getScale() {
+        return scale;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+import java.util.Random;
+
+// Randomized check of A* segment search: java CoordinateHeuristicTest [seed]
+// On random maps with random coordinates, every segment planned with a CoordinateHeuristic must cost
+// exactly what the uniform-cost search finds, for all four backpack combinations.
+// Prints the first mismatch and exits with status 1, or "ok" when every segment agrees.
+public class CoordinateHeuristicTest {
+    public static void main(String[] args) {
+        Random random = new Random(args.length > 0 ? Long.parseLong(args[0]) : 1);
+        try {
+            check(random);
+        } catch (IllegalStateException e) {
+            System.out.println("FAIL  " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("ok");
+    }
+
+    private static void check(Random random) {
+        double multiplier = 1.5;
+        for (int trial = 0; trial < 100; trial++) {
+            int n = 2 + random.nextInt(40);
+            // directed maps too, so the heuristic is not helped by symmetric edges
+            AdjacencyListGraph graph = new AdjacencyListGraph(n, trial % 2 == 1);
+            for (int i = 0; i < 3 * n; i++) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(6) == 0 ? 0 : 1 + random.nextInt(30));
+            }
+            double[] x = new double[n];
+            double[] y = new double[n];
+            for (int v = 0; v < n; v++) {
+                x[v] = random.nextInt(100);
+                y[v] = random.nextInt(100);
+            }
+            CampusNavigator uniform = new CampusNavigator(graph, multiplier);
+            CampusNavigator guided = new CampusNavigator(graph, multiplier);
+            guided.setHeuristic(new CoordinateHeuristic(graph, x, y));
+
+            for (int query = 0; query < 20; query++) {
+                int start = random.nextInt(n);
+                int end = random.nextInt(n);
+                boolean startCarrying = random.nextBoolean();
+                boolean endCarrying = random.nextBoolean();
+                double expected = costOf(uniform.computeOptimalPathSegment(start, end, startCarrying, endCarrying));
+                double actual = costOf(guided.computeOptimalPathSegment(start, end, startCarrying, endCarrying));
+                if (Math.abs(expected - actual) > 1e-9 && expected != actual) {
+                    throw new IllegalStateException("trial " + trial + " " + start + " -> " + end + " carrying " +
+                            startCarrying + " -> " + endCarrying + ": A* costs " + actual + ", expected " + expected);
+                }
+            }
+        }
+    }
+
+    // unreachable segments come back empty
+    private static double costOf(CArrayList<CampusNavigator.Position> path) {
+        return path.isEmpty() ? Double.POSITIVE_INFINITY : path.get(path.size() - 1).cost;
+    }
+}
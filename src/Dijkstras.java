@@ -1,96 +1,339 @@
 public class Dijkstras {
-    private final AdjacencyListGraph graph;
+    private final Graph graph;
+    // the snapshot the current query runs on, and a cursor over it
+    private Graph view;
+    private EdgeCursor edges;
     private final int v;
     private final double[] distTo;
     private final int[] edgeTo;
-    private final boolean[] visited;
+    private final double[] weightTo;
+    // A vertex's distTo/edgeTo are only valid when reachedIn matches the current generation,
+    // and it is settled when settledIn does. Starting a query just bumps the generation.
+    private final int[] reachedIn;
+    private final int[] settledIn;
+    private int generation;
+    private int source = -1;
+    private int settledCount = 0;
     private final PriorityQueue<Edge> pq;
+    private final IndexedMinHeap heap;
+    private final int heapArity;
+    private boolean bidirectional = false;
+    // target-side search state, allocated on the first bidirectional query
+    private double[] backDistTo;
+    private int[] backEdgeTo;
+    private double[] backWeightTo;
+    private int[] backReachedIn;
+    private int[] backSettledIn;
+    private IndexedMinHeap forwardHeap;
+    private IndexedMinHeap backwardHeap;
+    // directed graphs walk a reversed copy of the view backwards; undirected ones walk the view itself
+    private Graph reverseOf;
+    private long reverseVersion;
+    private EdgeCursor reverseEdges;
 
 
-    public Dijkstras(AdjacencyListGraph graph) {
+    public Dijkstras(Graph graph) {
+        this(graph, 0);
+    }
+
+    // heapArity 0 keeps the lazy PriorityQueue<Edge>; 2, 4, 8... switch to an indexed d-ary heap
+    // with decrease-key, whose size is bounded by V and which allocates nothing per relaxation.
+    public Dijkstras(Graph graph, int heapArity) {
         this.graph = graph;
         this.v = graph.getVertices();
         this.distTo = new double[v];
         this.edgeTo = new int[v];
-        this.visited = new boolean[v];
-        this.pq = new PriorityQueue<>(v);
+        this.weightTo = new double[v];
+        this.reachedIn = new int[v];
+        this.settledIn = new int[v];
+        this.generation = 0;
+        this.heapArity = heapArity;
+        if (heapArity == 0) {
+            this.pq = new PriorityQueue<>(v);
+            this.heap = null;
+        } else {
+            this.pq = null;
+            this.heap = new IndexedMinHeap(v, heapArity);
+        }
+    }
+
+    // Searches from both ends at once in findShortestPath. For nearby targets both searches stay
+    // small; afterwards only the returned path is reliable, not distTo/edgeTo of other vertices.
+    // Directed graphs search backwards over a reversed copy, built once per graph version.
+    public void setBidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
+
+    public boolean isBidirectional() {
+        return bidirectional;
+    }
 
-        for (int i = 0; i < v; i++) {
-            distTo[i] = Double.POSITIVE_INFINITY;
-            edgeTo[i] = -1;
-            visited[i] = false;
+    // Runs a search from source and returns the path to target. The instance can be reused for any number of queries.
+    // The search stops as soon as target is settled, so distTo/edgeTo are only final for settled vertices.
+    public ShortestPath findShortestPath(int source, int target) {
+        checkVertex(source);
+        checkVertex(target);
+        if (bidirectional && source != target) {
+            return searchBidirectional(source, target);
         }
+        search(source, target);
+        return pathTo(target);
     }
 
-    public void findShortestPath(int source, int target) {
-        distTo[source] = 0;
-        pq.add(new Edge(source, source, 0));
+    // Builds the full shortest-path tree from source; query it with distTo, edgeTo and pathTo.
+    public void computeFrom(int source) {
+        checkVertex(source);
+        search(source, -1);
+    }
+
+    // Vertices settled by the last query, both directions together for bidirectional ones.
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    private void search(int source, int target) {
+        startQuery(source);
+        if (heap != null) {
+            heap.insert(source, 0);
+            computeWithIndexedHeap(target);
+            return;
+        }
 
+        pq.add(new Edge(source, source, 0));
         while (!pq.isEmpty()) {
             Edge current = pq.removeMin();
             int u = current.to;
 
-            if (visited[u]) continue;
-            visited[u] = true;
-
-            SinglyLinkedList<Edge> neighbors = graph.getNeighbors(u);
-            int size = neighbors.size();
-            for (int i = 0; i < size; i++) {
-                Edge edge = neighbors.getNodeAt(i).getItem();
-                if (!visited[edge.to] && distTo[u] != Double.POSITIVE_INFINITY && distTo[u] + edge.weight < distTo[edge.to]) {
-                    distTo[edge.to] = distTo[u] + edge.weight;
-                    edgeTo[edge.to] = u;
-                    pq.add(new Edge(u, edge.to, distTo[edge.to]));
+            if (settledIn[u] == generation) continue;
+            settledIn[u] = generation;
+            settledCount++;
+            if (u == target) {
+                return;
+            }
+
+            // each adjacency is walked exactly once, O(degree) per settled vertex
+            double base = distTo[u];
+            edges.reset(u);
+            while (edges.next()) {
+                int to = edges.to();
+                double candidate = base + edges.weight();
+                if (settledIn[to] != generation && candidate < distTo(to)) {
+                    reach(to, candidate, u, edges.weight());
+                    pq.add(new Edge(u, to, candidate));
+                }
+            }
+        }
+    }
+
+    private void computeWithIndexedHeap(int target) {
+        while (!heap.isEmpty()) {
+            int u = heap.removeMin();
+            settledIn[u] = generation;
+            settledCount++;
+            if (u == target) {
+                return;
+            }
+
+            double base = distTo[u];
+            edges.reset(u);
+            while (edges.next()) {
+                int to = edges.to();
+                double candidate = base + edges.weight();
+                if (settledIn[to] != generation && candidate < distTo(to)) {
+                    reach(to, candidate, u, edges.weight());
+                    heap.insertOrDecrease(to, candidate);
                 }
             }
         }
-        printDikPath(source, target);
     }
 
     public double distTo(int v) {
-        return distTo[v];
+        return reachedIn[v] == generation ? distTo[v] : Double.POSITIVE_INFINITY;
     }
 
     public int edgeTo(int v) {
-        return edgeTo[v];
+        return reachedIn[v] == generation ? edgeTo[v] : -1;
     }
 
-    private void printDikPath(int source, int target) {
-        int[] pathVertices = new int[v];
-        int pathIndex = 0;
-        int current = target;
+    // Weight of the tree edge into v, 0 for the source and unreached vertices.
+    public double weightTo(int v) {
+        return reachedIn[v] == generation ? weightTo[v] : 0;
+    }
+
+    //O(path length)
+    public ShortestPath pathTo(int target) {
+        checkVertex(target);
+        if (source == -1 || distTo(target) == Double.POSITIVE_INFINITY) {
+            return ShortestPath.notFound(source, target);
+        }
 
-        while (edgeTo[current] != -1) {
-            pathVertices[pathIndex++] = current;
+        int length = 1;
+        for (int current = target; current != source; current = edgeTo[current]) {
+            length++;
+        }
+
+        int[] pathVertices = new int[length];
+        double[] stepWeights = new double[length - 1];
+        int current = target;
+        for (int i = length - 1; i > 0; i--) {
+            pathVertices[i] = current;
+            stepWeights[i - 1] = weightTo[current];
             current = edgeTo[current];
         }
+        pathVertices[0] = source;
+        return new ShortestPath(source, target, pathVertices, stepWeights);
+    }
 
-        if (current != source) {
-            throw new IllegalArgumentException("No path found.");
+    // Alternates between the two searches, expanding the side with the smaller queue. mu is the
+    // shortest source -> target path seen so far through a vertex both sides have reached;
+    // once the two queue minimums add up to at least mu, no unexplored path can beat it.
+    private ShortestPath searchBidirectional(int source, int target) {
+        startQuery(source);
+        prepareBackward();
+        IndexedMinHeap forward = heap != null ? heap : forwardHeap;
+        IndexedMinHeap backward = backwardHeap;
+        forward.insert(source, 0);
+        backReach(target, 0, -1, 0);
+        backward.insert(target, 0);
+
+        double mu = Double.POSITIVE_INFINITY;
+        int meet = -1;
+        while (!forward.isEmpty() && !backward.isEmpty()) {
+            if (forward.minPriority() + backward.minPriority() >= mu) {
+                break;
+            }
+            if (forward.size() <= backward.size()) {
+                int u = forward.removeMin();
+                settledIn[u] = generation;
+                settledCount++;
+                double base = distTo[u];
+                edges.reset(u);
+                while (edges.next()) {
+                    int to = edges.to();
+                    double candidate = base + edges.weight();
+                    if (settledIn[to] != generation && candidate < distTo(to)) {
+                        reach(to, candidate, u, edges.weight());
+                        forward.insertOrDecrease(to, candidate);
+                    }
+                    if (backReachedIn[to] == generation && distTo(to) + backDistTo[to] < mu) {
+                        mu = distTo(to) + backDistTo[to];
+                        meet = to;
+                    }
+                }
+            } else {
+                int u = backward.removeMin();
+                backSettledIn[u] = generation;
+                settledCount++;
+                double base = backDistTo[u];
+                reverseEdges.reset(u);
+                while (reverseEdges.next()) {
+                    int from = reverseEdges.to();
+                    double candidate = base + reverseEdges.weight();
+                    if (backSettledIn[from] != generation &&
+                            (backReachedIn[from] != generation || candidate < backDistTo[from])) {
+                        backReach(from, candidate, u, reverseEdges.weight());
+                        backward.insertOrDecrease(from, candidate);
+                    }
+                    if (reachedIn[from] == generation && distTo[from] + backDistTo[from] < mu) {
+                        mu = distTo[from] + backDistTo[from];
+                        meet = from;
+                    }
+                }
+            }
+        }
+        if (meet == -1) {
+            return ShortestPath.notFound(source, target);
+        }
+        // graft the target-side half onto the source tree so pathTo can walk it
+        for (int current = meet; current != target; current = backEdgeTo[current]) {
+            int next = backEdgeTo[current];
+            reach(next, distTo[current] + backWeightTo[current], current, backWeightTo[current]);
         }
+        return pathTo(target);
+    }
 
-        pathVertices[pathIndex++] = source;
+    private void prepareBackward() {
+        if (backDistTo == null) {
+            backDistTo = new double[v];
+            backEdgeTo = new int[v];
+            backWeightTo = new double[v];
+            backReachedIn = new int[v];
+            backSettledIn = new int[v];
+            backwardHeap = new IndexedMinHeap(v, heapArity != 0 ? heapArity : 4);
+            if (heap == null) {
+                forwardHeap = new IndexedMinHeap(v, 4);
+            }
+        }
+        backwardHeap.clear();
+        if (forwardHeap != null) {
+            forwardHeap.clear();
+        }
+        if (reverseOf != view || reverseVersion != view.getVersion()) {
+            reverseOf = view;
+            reverseVersion = view.getVersion();
+            reverseEdges = view.isDirected() ? reverse(view).edgeCursor() : view.edgeCursor();
+        }
+    }
 
-        double totalWeight = 0;
-        for (int i = pathIndex - 1; i > 0; i--) {
-            int from = pathVertices[i];
-            int to = pathVertices[i - 1];
-            double weight = getEdgeWeight(from, to);
-            System.out.println(from + " " + to + " " + weight);
-            totalWeight += weight;
+    //O(V+E)
+    private static Graph reverse(Graph graph) {
+        CompressedSparseRowGraph.Builder builder = new CompressedSparseRowGraph.Builder(graph.getVertices(), true);
+        EdgeCursor cursor = graph.edgeCursor();
+        for (int u = 0; u < graph.getVertices(); u++) {
+            cursor.reset(u);
+            while (cursor.next()) {
+                builder.addEdge(cursor.to(), u, cursor.weight());
+            }
         }
-        System.out.println(totalWeight);
+        return builder.build();
     }
 
-    private double getEdgeWeight(int from, int to) {
-        SinglyLinkedList<Edge> neighbors = graph.getNeighbors(from);
-        int size = neighbors.size();
-        for (int i = 0; i < size; i++) {
-            Edge edge = neighbors.getNodeAt(i).getItem();
-            if (edge.to == to) {
-                return edge.weight;
+    //O(1) amortized; the stamp arrays are only cleared when the generation counter wraps
+    private void startQuery(int source) {
+        if (generation == Integer.MAX_VALUE) {
+            for (int i = 0; i < v; i++) {
+                reachedIn[i] = 0;
+                settledIn[i] = 0;
+                if (backReachedIn != null) {
+                    backReachedIn[i] = 0;
+                    backSettledIn[i] = 0;
+                }
             }
+            generation = 0;
+        }
+        generation++;
+        this.source = source;
+        settledCount = 0;
+        Graph latest = graph.snapshot();
+        if (latest != view) {
+            view = latest;
+            edges = latest.edgeCursor();
+        }
+        reach(source, 0, -1, 0);
+        if (heap != null) {
+            heap.clear();
+        } else {
+            pq.clear();
+        }
+    }
+
+    private void backReach(int vertex, double distance, int to, double weight) {
+        backReachedIn[vertex] = generation;
+        backDistTo[vertex] = distance;
+        backEdgeTo[vertex] = to;
+        backWeightTo[vertex] = weight;
+    }
+
+    private void reach(int vertex, double distance, int from, double weight) {
+        reachedIn[vertex] = generation;
+        distTo[vertex] = distance;
+        edgeTo[vertex] = from;
+        weightTo[vertex] = weight;
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= v) {
+            throw new IndexOutOfBoundsException("Vertex index out of bounds.");
         }
-        return Double.POSITIVE_INFINITY;
     }
-}
\ No newline at end of file
+}
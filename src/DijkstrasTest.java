@@ -0,0 +1,105 @@
+import java.util.Random;
+
+// Randomized check of Dijkstras.findShortestPath: java DijkstrasTest [seed]
+// Unidirectional and bidirectional queries, on the lazy queue and on a 4-ary heap, are compared with a
+// fresh full computeFrom for every pair on random graphs, directed and undirected, with parallel edges,
+// self-loops and zero weights. Each returned path must follow real edges that add up to the distance.
+// The engines are kept across edits between rounds, so a stale reversed graph or leftover search state
+// would show up.
+// Prints the first mismatch and exits with status 1, or "ok" when every query agrees.
+public class DijkstrasTest {
+    public static void main(String[] args) {
+        Random random = new Random(args.length > 0 ? Long.parseLong(args[0]) : 1);
+        try {
+            check(random);
+        } catch (IllegalStateException e) {
+            System.out.println("FAIL  " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("ok");
+    }
+
+    private static void check(Random random) {
+        for (int trial = 0; trial < 300; trial++) {
+            boolean isDirected = trial % 2 == 1;
+            int n = 2 + random.nextInt(40);
+            AdjacencyListGraph graph = new AdjacencyListGraph(n, isDirected);
+            int edges = random.nextInt(3 * n + 1);
+            for (int i = 0; i < edges; i++) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n), randomWeight(random));
+            }
+            Dijkstras[] engines = {new Dijkstras(graph, 0), new Dijkstras(graph, 4), new Dijkstras(graph, 0),
+                    new Dijkstras(graph, 4)};
+            String[] names = {"lazy", "4-ary", "bidirectional lazy", "bidirectional 4-ary"};
+            engines[2].setBidirectional(true);
+            engines[3].setBidirectional(true);
+            for (int round = 0; round < 3; round++) {
+                String context = "trial " + trial + " round " + round + (isDirected ? " directed" : " undirected");
+                for (int source = 0; source < n; source++) {
+                    Dijkstras reference = new Dijkstras(graph);
+                    reference.computeFrom(source);
+                    for (int target = 0; target < n; target++) {
+                        for (int e = 0; e < engines.length; e++) {
+                            checkPath(graph, engines[e].findShortestPath(source, target), source, target,
+                                    reference.distTo(target), context + " " + names[e]);
+                        }
+                    }
+                }
+                for (int edit = 0; edit < 3; edit++) {
+                    int from = random.nextInt(n);
+                    int to = random.nextInt(n);
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            graph.addEdge(from, to, randomWeight(random));
+                            break;
+                        case 1:
+                            graph.updateWeight(from, to, randomWeight(random));
+                            break;
+                        default:
+                            graph.removeEdge(from, to);
+                    }
+                }
+            }
+        }
+    }
+
+    // one weight in six is zero, to exercise ties
+    private static double randomWeight(Random random) {
+        return random.nextInt(6) == 0 ? 0 : 1 + random.nextInt(30);
+    }
+
+    private static void checkPath(Graph graph, ShortestPath path, int source, int target, double distance, String context) {
+        String query = context + " " + source + " -> " + target;
+        if (distance == Double.POSITIVE_INFINITY) {
+            if (path.isFound()) {
+                throw new IllegalStateException(query + ": found a path to an unreachable vertex");
+            }
+            return;
+        }
+        if (!path.isFound() || Math.abs(path.getTotalWeight() - distance) > 1e-9) {
+            throw new IllegalStateException(query + ": distance " + (path.isFound() ? path.getTotalWeight() : "none") +
+                    ", expected " + distance);
+        }
+        if (path.vertexAt(0) != source || path.vertexAt(path.length() - 1) != target) {
+            throw new IllegalStateException(query + ": wrong endpoints");
+        }
+        double walked = 0;
+        for (int i = 0; i + 1 < path.length(); i++) {
+            double weight = Double.POSITIVE_INFINITY;
+            EdgeCursor edges = graph.edgeCursor();
+            edges.reset(path.vertexAt(i));
+            while (edges.next()) {
+                if (edges.to() == path.vertexAt(i + 1)) {
+                    weight = Math.min(weight, edges.weight());
+                }
+            }
+            if (weight == Double.POSITIVE_INFINITY) {
+                throw new IllegalStateException(query + ": no edge " + path.vertexAt(i) + " -> " + path.vertexAt(i + 1));
+            }
+            walked += weight;
+        }
+        if (Math.abs(walked - distance) > 1e-9) {
+            throw new IllegalStateException(query + ": edges weigh " + walked + ", expected " + distance);
+        }
+    }
+}
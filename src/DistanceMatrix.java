@@ -0,0 +1,241 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// All-pairs shortest distances and next hops for a static graph.
+// distTo(s, t) is a single lookup and path(s, t) follows next hops in O(path length).
+//
+// File layout (little-endian): int magic, int version, int vertices, int reserved,
+// then V*V float distances and V*V int next hops, both row-major by source.
+// load() maps the file instead of reading it, so a loaded matrix costs no heap.
+public class DistanceMatrix {
+    private static final int MAGIC = 0x41505350; // "APSP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final int vertices;
+    private final FloatBuffer distances;
+    private final IntBuffer nextHops;
+
+    private DistanceMatrix(int vertices, FloatBuffer distances, IntBuffer nextHops) {
+        this.vertices = vertices;
+        this.distances = distances;
+        this.nextHops = nextHops;
+    }
+
+    public static DistanceMatrix compute(Graph graph) {
+        return compute(graph, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Runs one Dijkstra per source, spread over the given number of threads.
+    // Each worker owns its Dijkstras engine; the graph is only read.
+    public static DistanceMatrix compute(Graph graph, int threads) {
+        int n = graph.getVertices();
+        checkSize(n);
+        float[] dist = new float[n * n];
+        int[] next = new int[n * n];
+        AtomicInteger nextSource = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            Future<?>[] workers = new Future<?>[Math.max(1, threads)];
+            for (int w = 0; w < workers.length; w++) {
+                workers[w] = pool.submit(() -> {
+                    Dijkstras engine = new Dijkstras(graph, 4);
+                    int[] stack = new int[n];
+                    for (int s = nextSource.getAndIncrement(); s < n; s = nextSource.getAndIncrement()) {
+                        engine.computeFrom(s);
+                        fillRow(engine, s, n, dist, next, stack);
+                    }
+                });
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("All-pairs computation interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("All-pairs computation failed.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return new DistanceMatrix(n, FloatBuffer.wrap(dist), IntBuffer.wrap(next));
+    }
+
+    // next[s][t] is the child of s on the tree path to t: walk up edgeTo until a vertex whose
+    // hop is known (or whose parent is s), then fill in the hops on the way back down.
+    private static void fillRow(Dijkstras engine, int s, int n, float[] dist, int[] next, int[] stack) {
+        int row = s * n;
+        for (int t = 0; t < n; t++) {
+            dist[row + t] = (float) engine.distTo(t);
+            next[row + t] = -2;
+        }
+        next[row + s] = s;
+        for (int t = 0; t < n; t++) {
+            if (next[row + t] != -2) {
+                continue;
+            }
+            if (engine.edgeTo(t) == -1) {
+                next[row + t] = -1;
+                continue;
+            }
+            int depth = 0;
+            int current = t;
+            while (next[row + current] == -2 && engine.edgeTo(current) != s) {
+                stack[depth++] = current;
+                current = engine.edgeTo(current);
+            }
+            int hop = next[row + current] == -2 ? current : next[row + current];
+            next[row + current] = hop;
+            while (depth > 0) {
+                next[row + stack[--depth]] = hop;
+            }
+        }
+    }
+
+    public int getVertices() {
+        return vertices;
+    }
+
+    //O(1)
+    public double distTo(int source, int target) {
+        return distances.get(index(source, target));
+    }
+
+    //O(1); -1 when target is unreachable, source itself when source == target
+    public int nextHop(int source, int target) {
+        return nextHops.get(index(source, target));
+    }
+
+    //O(path length); empty when target is unreachable
+    public int[] path(int source, int target) {
+        if (nextHop(source, target) == -1) {
+            return new int[0];
+        }
+        CArrayList<Integer> steps = new CArrayList<>();
+        steps.add(source);
+        int current = source;
+        while (current != target) {
+            current = nextHop(current, target);
+            steps.add(current);
+            if (steps.size() > vertices) {
+                throw new IllegalStateException("Next-hop table contains a cycle.");
+            }
+        }
+        int[] result = new int[steps.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = steps.get(i);
+        }
+        return result;
+    }
+
+    public void write(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(vertices).putInt(0).flip();
+            writeFully(channel, header);
+
+            int cells = vertices * vertices;
+            ByteBuffer chunk = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < cells; i++) {
+                if (chunk.remaining() < 4) {
+                    chunk.flip();
+                    writeFully(channel, chunk);
+                    chunk.clear();
+                }
+                chunk.putFloat(distances.get(i));
+            }
+            for (int i = 0; i < cells; i++) {
+                if (chunk.remaining() < 4) {
+                    chunk.flip();
+                    writeFully(channel, chunk);
+                    chunk.clear();
+                }
+                chunk.putInt(nextHops.get(i));
+            }
+            chunk.flip();
+            writeFully(channel, chunk);
+        }
+    }
+
+    public static DistanceMatrix load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a distance matrix file: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported distance matrix version " + version + ".");
+            }
+            int n = header.getInt();
+            long cellBytes = (long) n * n * 4;
+            if (channel.size() != HEADER_BYTES + 2 * cellBytes) {
+                throw new IOException("Distance matrix file is truncated: " + file);
+            }
+            FloatBuffer distances = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, cellBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            IntBuffer nextHops = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + cellBytes, cellBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            return new DistanceMatrix(n, distances, nextHops);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private int index(int source, int target) {
+        if (source < 0 || source >= vertices || target < 0 || target >= vertices) {
+            throw new IndexOutOfBoundsException("Vertex index out of bounds.");
+        }
+        return source * vertices + target;
+    }
+
+    // Each half of the file is mapped as one buffer, which caps it at 2 GB.
+    private static void checkSize(int n) {
+        if ((long) n * n * 4 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many vertices for an all-pairs matrix: " + n);
+        }
+    }
+
+    // Build-time command: java DistanceMatrix [--directed] <graph> <output> [threads]
+    // The graph is read with GraphLoader: DIMACS when the file name ends in .gr, otherwise CSV,
+    // which is undirected unless --directed is given.
+    public static void main(String[] args) throws IOException {
+        boolean directed = args.length > 0 && args[0].equals("--directed");
+        int first = directed ? 1 : 0;
+        if (args.length - first < 2) {
+            System.out.println("Usage: java DistanceMatrix [--directed] <graph.gr | graph.csv> <output> [threads]");
+            return;
+        }
+        Path input = Paths.get(args[first]);
+        int threads = args.length > first + 2 ? Integer.parseInt(args[first + 2]) : Runtime.getRuntime().availableProcessors();
+        AdjacencyListGraph loaded = input.getFileName().toString().endsWith(".gr")
+                ? GraphLoader.readDimacs(input)
+                : GraphLoader.readCsv(input, directed);
+        Graph graph = CompressedSparseRowGraph.fromAdjacencyList(loaded);
+
+        long start = System.nanoTime();
+        DistanceMatrix matrix = compute(graph, threads);
+        long computed = System.nanoTime();
+        matrix.write(Paths.get(args[first + 1]));
+        System.out.printf("%d vertices: computed in %.1f ms on %d threads, written in %.1f ms%n",
+                graph.getVertices(), (computed - start) / 1e6, threads, (System.nanoTime() - computed) / 1e6);
+    }
+}
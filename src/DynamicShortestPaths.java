@@ -0,0 +1,285 @@
+// Single-source shortest paths that stay current while edge weights change.
+// The first tree comes from Dijkstras; after that, each edit only marks the vertices whose incoming
+// cost changed, and the next query repairs just the part of the tree they affect (DynamicSWSF-FP,
+// the all-targets form of LPA*). Several edits between queries are repaired together.
+//
+// g[v] is the settled distance and rhs[v] the best distance its in-edges offer right now; a vertex
+// is queued, keyed by min(g, rhs), exactly while the two differ.
+// Edits must go through this class; if the graph is changed behind its back the tree is rebuilt.
+public class DynamicShortestPaths {
+    private final AdjacencyListGraph graph;
+    private final int source;
+    private final int v;
+    private final Dijkstras engine;
+    private final double[] g;
+    private final double[] rhs;
+    private final int[] parent;
+    private final double[] parentWeight;
+    private final IndexedMinHeap heap;
+    // scratch for unsettle(): the subtree being cut loose, and which vertices are in it
+    private final int[] subtree;
+    private final boolean[] inSubtree;
+    // directed graphs only: the edges entering each vertex, shared with the graph's own lists
+    private SinglyLinkedList<Edge>[] incoming;
+    private long graphVersion;
+    private int lastRepairSettled = 0;
+    private long rebuilds = 0;
+
+    public DynamicShortestPaths(AdjacencyListGraph graph, int source) {
+        this(graph, source, 4);
+    }
+
+    public DynamicShortestPaths(AdjacencyListGraph graph, int source, int heapArity) {
+        this.graph = graph;
+        this.source = source;
+        this.v = graph.getVertices();
+        checkVertex(source);
+        this.engine = new Dijkstras(graph, heapArity);
+        this.g = new double[v];
+        this.rhs = new double[v];
+        this.parent = new int[v];
+        this.parentWeight = new double[v];
+        this.heap = new IndexedMinHeap(v, heapArity);
+        this.subtree = new int[v];
+        this.inSubtree = new boolean[v];
+        rebuild();
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public double distTo(int vertex) {
+        checkVertex(vertex);
+        repair();
+        return g[vertex];
+    }
+
+    // Tree parent of vertex, -1 for the source and unreachable vertices.
+    public int edgeTo(int vertex) {
+        checkVertex(vertex);
+        repair();
+        return g[vertex] == Double.POSITIVE_INFINITY ? -1 : parent[vertex];
+    }
+
+    //O(path length) after the repair
+    public ShortestPath pathTo(int target) {
+        checkVertex(target);
+        repair();
+        if (g[target] == Double.POSITIVE_INFINITY) {
+            return ShortestPath.notFound(source, target);
+        }
+        int length = 1;
+        for (int current = target; current != source; current = parent[current]) {
+            length++;
+        }
+        int[] pathVertices = new int[length];
+        double[] stepWeights = new double[length - 1];
+        int current = target;
+        for (int i = length - 1; i > 0; i--) {
+            pathVertices[i] = current;
+            stepWeights[i - 1] = parentWeight[current];
+            current = parent[current];
+        }
+        pathVertices[0] = source;
+        return new ShortestPath(source, target, pathVertices, stepWeights);
+    }
+
+    //O(degree) now; the tree is repaired on the next query
+    public boolean updateWeight(int from, int to, double weight) {
+        if (!graph.updateWeight(from, to, weight)) {
+            return false;
+        }
+        edgeChanged(from, to);
+        return true;
+    }
+
+    //O(degree) now; the tree is repaired on the next query
+    public boolean removeEdge(int from, int to) {
+        if (!graph.removeEdge(from, to)) {
+            return false;
+        }
+        if (incoming != null) {
+            incoming[to].removeIf(edge -> edge.from == from);
+        }
+        edgeChanged(from, to);
+        return true;
+    }
+
+    public void addEdge(int from, int to, double weight) {
+        graph.addEdge(from, to, weight);
+        if (incoming != null) {
+            incoming[to].append(graph.getNeighbors(from).tail());
+        }
+        edgeChanged(from, to);
+    }
+
+    // Settles every queued vertex. Queries call this themselves; calling it right after a batch
+    // of edits moves the work off the query path.
+    public void repair() {
+        if (graph.getVersion() != graphVersion) {
+            rebuild();
+            rebuilds++;
+            return;
+        }
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            int u = heap.removeMin();
+            settled++;
+            if (g[u] > rhs[u]) {
+                // cheaper than before: settle it and offer the new distance to its out-neighbours
+                g[u] = rhs[u];
+                for (Edge edge : graph.getNeighbors(u)) {
+                    int to = edge.to;
+                    double candidate = g[u] + edge.weight;
+                    if (to != source && candidate < rhs[to]) {
+                        rhs[to] = candidate;
+                        parent[to] = u;
+                        parentWeight[to] = edge.weight;
+                        queue(to);
+                    }
+                }
+            } else {
+                // more expensive than before: unsettle it and everything below it in the tree
+                unsettle(u);
+            }
+        }
+        if (settled > 0) {
+            lastRepairSettled = settled;
+        }
+    }
+
+    // Vertices taken off the queue by the most recent repair that had work to do.
+    public int getLastRepairSettled() {
+        return lastRepairSettled;
+    }
+
+    // Times the tree was rebuilt from scratch because the graph was edited directly.
+    public long getRebuilds() {
+        return rebuilds;
+    }
+
+    private void edgeChanged(int from, int to) {
+        graphVersion = graph.getVersion();
+        edgeChangedInto(from, to);
+        if (!graph.isDirected()) {
+            edgeChangedInto(to, from);
+        }
+    }
+
+    //O(degree of from, or of the subtree when a tree edge changed)
+    // Off the tree the edit can only offer to a shorter distance through from; on the tree it can
+    // lengthen every distance below to, so that subtree is re-derived.
+    private void edgeChangedInto(int from, int to) {
+        if (to == source) {
+            return;
+        }
+        if (parent[to] == from) {
+            unsettle(to);
+            return;
+        }
+        double weight = Double.POSITIVE_INFINITY;
+        for (Edge edge : graph.getNeighbors(from)) {
+            if (edge.to == to) {
+                weight = Math.min(weight, edge.weight);
+            }
+        }
+        if (g[from] + weight < rhs[to]) {
+            rhs[to] = g[from] + weight;
+            parent[to] = from;
+            parentWeight[to] = weight;
+            queue(to);
+        }
+    }
+
+    //O(subtree size + its edges)
+    // Drops the settled distance of vertex and all its tree descendants, then re-derives each of them
+    // from vertices outside that subtree. Re-deriving a vertex while its descendants still hold their
+    // old distances is not safe once edges can weigh 0: a descendant across a zero-weight edge offers
+    // exactly the old distance back, and the two would keep each other up with no path to the source.
+    private void unsettle(int vertex) {
+        int size = 0;
+        subtree[size++] = vertex;
+        inSubtree[vertex] = true;
+        for (int i = 0; i < size; i++) {
+            int u = subtree[i];
+            g[u] = Double.POSITIVE_INFINITY;
+            for (Edge edge : graph.getNeighbors(u)) {
+                if (parent[edge.to] == u && !inSubtree[edge.to]) {
+                    inSubtree[edge.to] = true;
+                    subtree[size++] = edge.to;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            inSubtree[subtree[i]] = false;
+            recompute(subtree[i]);
+        }
+    }
+
+    //O(in-degree): rhs is the cheapest settled predecessor plus the edge into vertex
+    private void recompute(int vertex) {
+        if (vertex == source) {
+            return;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        int bestParent = -1;
+        double bestWeight = 0;
+        boolean directed = incoming != null;
+        for (Edge edge : directed ? incoming[vertex] : graph.getNeighbors(vertex)) {
+            int from = directed ? edge.from : edge.to;
+            double candidate = g[from] + edge.weight;
+            if (candidate < best) {
+                best = candidate;
+                bestParent = from;
+                bestWeight = edge.weight;
+            }
+        }
+        rhs[vertex] = best;
+        parent[vertex] = bestParent;
+        parentWeight[vertex] = bestWeight;
+        queue(vertex);
+    }
+
+    private void queue(int vertex) {
+        if (g[vertex] != rhs[vertex]) {
+            heap.insertOrUpdate(vertex, Math.min(g[vertex], rhs[vertex]));
+        } else {
+            heap.remove(vertex);
+        }
+    }
+
+    //O((V+E)log V)
+    @SuppressWarnings("unchecked")
+    private void rebuild() {
+        if (graph.isDirected()) {
+            incoming = (SinglyLinkedList<Edge>[]) new SinglyLinkedList<?>[v];
+            for (int i = 0; i < v; i++) {
+                incoming[i] = new SinglyLinkedList<>();
+            }
+            for (int i = 0; i < v; i++) {
+                for (Edge edge : graph.getNeighbors(i)) {
+                    incoming[edge.to].append(edge);
+                }
+            }
+        } else {
+            incoming = null;
+        }
+
+        engine.computeFrom(source);
+        for (int i = 0; i < v; i++) {
+            g[i] = engine.distTo(i);
+            rhs[i] = g[i];
+            parent[i] = engine.edgeTo(i);
+            parentWeight[i] = engine.weightTo(i);
+        }
+        heap.clear();
+        graphVersion = graph.getVersion();
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= v) {
+            throw new IndexOutOfBoundsException("Vertex index out of bounds.");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.Random;
+
+// Randomized check of DynamicShortestPaths: java DynamicShortestPathsTest [seed]
+// Edges are added, removed and reweighted through the class on random graphs, directed and undirected,
+// with parallel edges, self-loops and zero weights. After each batch of edits every distTo must match a
+// Dijkstras run from scratch, and every pathTo must follow real edges that add up to that distance.
+// Prints the first mismatch and exits with status 1, or "ok" when every query agrees.
+public class DynamicShortestPathsTest {
+    public static void main(String[] args) {
+        Random random = new Random(args.length > 0 ? Long.parseLong(args[0]) : 1);
+        try {
+            check(random);
+        } catch (IllegalStateException e) {
+            System.out.println("FAIL  " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("ok");
+    }
+
+    private static void check(Random random) {
+        for (int trial = 0; trial < 40; trial++) {
+            boolean isDirected = trial % 2 == 1;
+            int n = 2 + random.nextInt(60);
+            AdjacencyListGraph graph = new AdjacencyListGraph(n, isDirected);
+            int edges = random.nextInt(4 * n + 1);
+            for (int i = 0; i < edges; i++) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n), randomWeight(random));
+            }
+            int source = random.nextInt(n);
+            DynamicShortestPaths dynamic = new DynamicShortestPaths(graph, source, trial % 4 < 2 ? 2 : 4);
+            for (int step = 0; step < 100; step++) {
+                int edits = 1 + random.nextInt(3);
+                for (int edit = 0; edit < edits; edit++) {
+                    int from = random.nextInt(n);
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            dynamic.addEdge(from, random.nextInt(n), randomWeight(random));
+                            break;
+                        case 1:
+                            dynamic.removeEdge(from, random.nextInt(n));
+                            break;
+                        default:
+                            // reweight an edge that exists, so most updates change something
+                            SinglyLinkedList<Edge> neighbors = graph.getNeighbors(from);
+                            int to = neighbors.size() > 0 ? neighbors.getNodeAt(random.nextInt(neighbors.size())).getItem().to
+                                    : random.nextInt(n);
+                            dynamic.updateWeight(from, to, randomWeight(random));
+                    }
+                }
+                Dijkstras reference = new Dijkstras(graph);
+                reference.computeFrom(source);
+                String context = "trial " + trial + " step " + step + (isDirected ? " directed" : " undirected");
+                for (int v = 0; v < n; v++) {
+                    double expected = reference.distTo(v);
+                    if (dynamic.distTo(v) != expected && !(Math.abs(dynamic.distTo(v) - expected) <= 1e-9)) {
+                        throw new IllegalStateException(context + ": distTo(" + v + ") " + dynamic.distTo(v) +
+                                ", expected " + expected);
+                    }
+                }
+                // the tree must lead back to the source within n steps; pathTo itself would loop on a cycle
+                for (int v = 0; v < n; v++) {
+                    if (reference.distTo(v) == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    int current = v;
+                    for (int steps = 0; current != source; steps++) {
+                        if (steps == n || current == -1) {
+                            throw new IllegalStateException(context + ": edgeTo from " + v + " never reaches the source");
+                        }
+                        current = dynamic.edgeTo(current);
+                    }
+                }
+                for (int v = 0; v < n; v++) {
+                    checkPath(graph, dynamic.pathTo(v), source, v, reference.distTo(v), context);
+                }
+            }
+        }
+    }
+
+    // one weight in six is zero, to exercise ties and zero-weight cycles
+    private static double randomWeight(Random random) {
+        return random.nextInt(6) == 0 ? 0 : 1 + random.nextInt(30);
+    }
+
+    private static void checkPath(Graph graph, ShortestPath path, int source, int target, double distance, String context) {
+        String query = context + " pathTo(" + target + ")";
+        if (distance == Double.POSITIVE_INFINITY) {
+            if (path.isFound()) {
+                throw new IllegalStateException(query + ": found a path to an unreachable vertex");
+            }
+            return;
+        }
+        if (!path.isFound() || path.vertexAt(0) != source || path.vertexAt(path.length() - 1) != target) {
+            throw new IllegalStateException(query + ": no path from " + source);
+        }
+        double walked = 0;
+        for (int i = 0; i + 1 < path.length(); i++) {
+            double weight = Double.POSITIVE_INFINITY;
+            EdgeCursor edges = graph.edgeCursor();
+            edges.reset(path.vertexAt(i));
+            while (edges.next()) {
+                if (edges.to() == path.vertexAt(i + 1)) {
+                    weight = Math.min(weight, edges.weight());
+                }
+            }
+            if (weight == Double.POSITIVE_INFINITY) {
+                throw new IllegalStateException(query + ": no edge " + path.vertexAt(i) + " -> " + path.vertexAt(i + 1));
+            }
+            walked += weight;
+        }
+        if (Math.abs(walked - distance) > 1e-9 || Math.abs(path.getTotalWeight() - distance) > 1e-9) {
+            throw new IllegalStateException(query + ": edges weigh " + walked + ", expected " + distance);
+        }
+    }
+}
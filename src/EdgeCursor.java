@@ -0,0 +1,11 @@
+// Walks the outgoing edges of one vertex at a time without allocating an Edge per step.
+// A cursor is reused across vertices by calling reset, so one instance per search is enough.
+interface EdgeCursor {
+    void reset(int vertex);
+
+    boolean next();
+
+    int to();
+
+    double weight();
+}
\ No newline at end of file
@@ -1,9 +1,24 @@
+// Read access to a graph: everything the searches need. Graphs that can be changed in place
+// implement MutableGraph; frozen ones (CompressedSparseRowGraph, VersionedGraph snapshots) only this.
 interface Graph {
-    void addEdge(int from, int to);
-
     boolean hasEdge(int from, int to);
 
     void printNeighbors(int vertex);
 
     void printMaxDegree();
+
+    int getVertices();
+
+    boolean isDirected();
+
+    EdgeCursor edgeCursor();
+
+    // Changes whenever an edge is added, removed or reweighted, so callers can tell cached results are stale.
+    long getVersion();
+
+    // A view that stays the same for as long as the caller holds it, for running one query on.
+    // Graphs that are edited while queries run (VersionedGraph) return an immutable copy.
+    default Graph snapshot() {
+        return this;
+    }
 }
\ No newline at end of file
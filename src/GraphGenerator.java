@@ -0,0 +1,236 @@
+import java.util.Random;
+
+// Synthetic undirected graphs for benchmarks and experiments. Every generator takes its Random,
+// so the same seed always gives the same graph.
+public class GraphGenerator {
+    private static final int ARTERIAL_SPACING = 8;
+    private static final double LOCAL_STREET_KEEP = 0.75;
+    private static final double DIAGONAL_PROBABILITY = 0.1;
+
+    private GraphGenerator() {
+    }
+
+    // side x side lattice; each edge weighs 1 plus up to jitter extra.
+    public static AdjacencyListGraph grid(int side, double jitter, Random random) {
+        if (side <= 0) {
+            throw new IllegalArgumentException("Grid side must be positive.");
+        }
+        AdjacencyListGraph graph = new AdjacencyListGraph(side * side, false);
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                int v = row * side + col;
+                if (col + 1 < side) {
+                    graph.addEdge(v, v + 1, 1 + random.nextDouble() * jitter);
+                }
+                if (row + 1 < side) {
+                    graph.addEdge(v, v + side, 1 + random.nextDouble() * jitter);
+                }
+            }
+        }
+        return graph;
+    }
+
+    // Positions of grid(side, ...) vertices: x is the column and y the row, one unit apart.
+    public static double[][] gridPoints(int side) {
+        double[][] points = new double[2][side * side];
+        for (int v = 0; v < side * side; v++) {
+            points[0][v] = v % side;
+            points[1][v] = v / side;
+        }
+        return points;
+    }
+
+    // gridPoints(side) with each point moved by up to jitter / 2 along each axis.
+    public static double[][] jitteredGridPoints(int side, double jitter, Random random) {
+        double[][] points = gridPoints(side);
+        for (int v = 0; v < side * side; v++) {
+            points[0][v] += (random.nextDouble() - 0.5) * jitter;
+            points[1][v] += (random.nextDouble() - 0.5) * jitter;
+        }
+        return points;
+    }
+
+    // points[0] holds x and points[1] holds y, uniform in the unit square.
+    public static double[][] randomPoints(int vertices, Random random) {
+        double[][] points = new double[2][vertices];
+        for (int v = 0; v < vertices; v++) {
+            points[0][v] = random.nextDouble();
+            points[1][v] = random.nextDouble();
+        }
+        return points;
+    }
+
+    // Connects every pair of points closer than radius, weighted by their distance.
+    // Points are bucketed into radius-sized cells, so only neighbouring cells are compared: O(V + E) expected.
+    public static AdjacencyListGraph randomGeometric(double[][] points, double radius) {
+        if (radius <= 0) {
+            throw new IllegalArgumentException("Radius must be positive.");
+        }
+        int n = points[0].length;
+        int cells = Math.max(1, Math.min((int) (1 / radius), (int) Math.sqrt(n) + 1));
+        int[] cellStart = new int[cells * cells + 1];
+        int[] cellOf = new int[n];
+        for (int v = 0; v < n; v++) {
+            cellOf[v] = cell(points[1][v], cells) * cells + cell(points[0][v], cells);
+            cellStart[cellOf[v] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] members = new int[n];
+        int[] fill = cellStart.clone();
+        for (int v = 0; v < n; v++) {
+            members[fill[cellOf[v]]++] = v;
+        }
+
+        AdjacencyListGraph graph = new AdjacencyListGraph(n, false);
+        double radiusSquared = radius * radius;
+        for (int v = 0; v < n; v++) {
+            int row = cellOf[v] / cells;
+            int col = cellOf[v] % cells;
+            for (int r = Math.max(0, row - 1); r <= Math.min(cells - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(cells - 1, col + 1); c++) {
+                    int cellIndex = r * cells + c;
+                    for (int i = cellStart[cellIndex]; i < cellStart[cellIndex + 1]; i++) {
+                        int u = members[i];
+                        if (u <= v) {
+                            continue;
+                        }
+                        double dx = points[0][u] - points[0][v];
+                        double dy = points[1][u] - points[1][v];
+                        double squared = dx * dx + dy * dy;
+                        if (squared < radiusSquared) {
+                            graph.addEdge(v, u, Math.sqrt(squared));
+                        }
+                    }
+                }
+            }
+        }
+        return graph;
+    }
+
+    // Radius that gives roughly averageDegree neighbours per point in the unit square.
+    public static double radiusForDegree(int vertices, double averageDegree) {
+        return Math.sqrt(averageDegree / (Math.PI * vertices));
+    }
+
+    // Barabasi-Albert preferential attachment: each new vertex links to edgesPerVertex distinct
+    // earlier vertices, picked with probability proportional to their degree. Weights are 1..10.
+    public static AdjacencyListGraph scaleFree(int vertices, int edgesPerVertex, Random random) {
+        if (edgesPerVertex <= 0 || vertices <= edgesPerVertex) {
+            throw new IllegalArgumentException("Need more vertices than edges per vertex.");
+        }
+        AdjacencyListGraph graph = new AdjacencyListGraph(vertices, false);
+        // every edge endpoint appears once, so a uniform pick is a degree-weighted pick
+        int[] endpoints = new int[2 * edgesPerVertex * vertices];
+        int size = 0;
+        for (int v = 0; v <= edgesPerVertex; v++) {
+            for (int u = 0; u < v; u++) {
+                graph.addEdge(u, v, 1 + random.nextDouble() * 9);
+                endpoints[size++] = u;
+                endpoints[size++] = v;
+            }
+        }
+        int[] picked = new int[edgesPerVertex];
+        for (int v = edgesPerVertex + 1; v < vertices; v++) {
+            int count = 0;
+            while (count < edgesPerVertex) {
+                int u = endpoints[random.nextInt(size)];
+                boolean duplicate = false;
+                for (int i = 0; i < count; i++) {
+                    if (picked[i] == u) {
+                        duplicate = true;
+                        break;
+                    }
+                }
+                if (!duplicate) {
+                    picked[count++] = u;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                graph.addEdge(picked[i], v, 1 + random.nextDouble() * 9);
+                endpoints[size++] = picked[i];
+                endpoints[size++] = v;
+            }
+        }
+        return graph;
+    }
+
+    // Road-like planar graph over a side x side lattice of points in row-major order, such as
+    // jitteredGridPoints(side, ...). Every ARTERIAL_SPACING-th row and column is an arterial that is always
+    // present and twice as fast; other streets are kept with probability LOCAL_STREET_KEEP and some blocks get
+    // one diagonal. Weights are travel times. A dropped street is put back if it is the only way to reach part
+    // of the lattice, so the graph stays connected. O(V log V)
+    public static AdjacencyListGraph roadNetwork(double[][] points, int side, Random random) {
+        if (side <= 0 || points[0].length != side * side) {
+            throw new IllegalArgumentException("Need one point per lattice vertex.");
+        }
+        int n = side * side;
+        AdjacencyListGraph graph = new AdjacencyListGraph(n, false);
+        int[] component = new int[n];
+        for (int v = 0; v < n; v++) {
+            component[v] = v;
+        }
+        // the street v -> v + 1 is recorded as 2v and v -> v + side as 2v + 1
+        int[] dropped = new int[2 * n];
+        int droppedCount = 0;
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                int v = row * side + col;
+                if (col + 1 < side) {
+                    boolean arterial = row % ARTERIAL_SPACING == 0;
+                    if (arterial || random.nextDouble() < LOCAL_STREET_KEEP) {
+                        street(graph, points, v, v + 1, arterial, random, component);
+                    } else {
+                        dropped[droppedCount++] = 2 * v;
+                    }
+                }
+                if (row + 1 < side) {
+                    boolean arterial = col % ARTERIAL_SPACING == 0;
+                    if (arterial || random.nextDouble() < LOCAL_STREET_KEEP) {
+                        street(graph, points, v, v + side, arterial, random, component);
+                    } else {
+                        dropped[droppedCount++] = 2 * v + 1;
+                    }
+                }
+                if (col + 1 < side && row + 1 < side && random.nextDouble() < DIAGONAL_PROBABILITY) {
+                    if (random.nextBoolean()) {
+                        street(graph, points, v, v + side + 1, false, random, component);
+                    } else {
+                        street(graph, points, v + 1, v + side, false, random, component);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < droppedCount; i++) {
+            int v = dropped[i] / 2;
+            int u = dropped[i] % 2 == 0 ? v + 1 : v + side;
+            if (find(component, v) != find(component, u)) {
+                street(graph, points, v, u, false, random, component);
+            }
+        }
+        return graph;
+    }
+
+    private static void street(AdjacencyListGraph graph, double[][] points, int from, int to, boolean arterial,
+                               Random random, int[] component) {
+        double dx = points[0][to] - points[0][from];
+        double dy = points[1][to] - points[1][from];
+        double length = Math.sqrt(dx * dx + dy * dy);
+        graph.addEdge(from, to, arterial ? length / 2 : length * (1 + random.nextDouble() * 0.5));
+        component[find(component, from)] = find(component, to);
+    }
+
+    // union-find root with path halving
+    private static int find(int[] component, int v) {
+        while (component[v] != v) {
+            component[v] = component[component[v]];
+            v = component[v];
+        }
+        return v;
+    }
+
+    private static int cell(double coordinate, int cells) {
+        return Math.min(cells - 1, (int) (coordinate * cells));
+    }
+}
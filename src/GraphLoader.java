@@ -0,0 +1,302 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Streaming readers for edge-list files. Input is parsed straight from a byte buffer, so loading does not
+// create a String per line and large files cost little more than the graph itself.
+//   DIMACS shortest-path (.gr): "c" comment lines, one "p sp <vertices> <arcs>" line, then one
+//   "a <from> <to> <weight>" line per arc with 1-based vertices. The graph is directed, like the challenge files.
+//   The vertex count may not exceed twice the arc count plus MAX_ISOLATED_VERTICES.
+//   CSV: "from,to[,weight]" per line with 0-based vertices; the weight is 1 when omitted. An optional header
+//   line, blank lines and lines starting with # are skipped. There are as many vertices as the largest index + 1,
+//   which may not exceed twice the edge count plus MAX_ISOLATED_VERTICES.
+// Weights must be finite and not negative.
+public class GraphLoader {
+    // room for vertices no edge touches; a larger index is far more likely a typo than a graph
+    public static final int MAX_ISOLATED_VERTICES = 1 << 16;
+
+    private GraphLoader() {
+    }
+
+    //O(V + E)
+    public static AdjacencyListGraph readDimacs(Path file) throws IOException {
+        try (Tokenizer in = new Tokenizer(Files.newInputStream(file))) {
+            AdjacencyListGraph graph = null;
+            int vertices = 0;
+            long expectedArcs = 0;
+            long arcs = 0;
+            while (in.nextLine()) {
+                int kind = in.peekChar();
+                if (kind == 'c') {
+                    continue;
+                }
+                in.skipToken();
+                if (kind == 'p') {
+                    if (graph != null) {
+                        throw in.error("second problem line.");
+                    }
+                    if (!in.nextWord().equals("sp")) {
+                        throw in.error("not a shortest-path problem.");
+                    }
+                    long count = in.nextLong();
+                    if (count < 0 || count >= Integer.MAX_VALUE) {
+                        throw in.error("vertex count out of range.");
+                    }
+                    vertices = (int) count;
+                    expectedArcs = in.nextLong();
+                    if (expectedArcs < 0 || vertices >= 2 * expectedArcs + MAX_ISOLATED_VERTICES) {
+                        throw in.error(vertices + " vertices out of range for " + expectedArcs + " arcs.");
+                    }
+                    graph = new AdjacencyListGraph(vertices, true);
+                } else if (kind == 'a') {
+                    if (graph == null) {
+                        throw in.error("arc before the problem line.");
+                    }
+                    int from = in.nextVertex(1, vertices);
+                    int to = in.nextVertex(1, vertices);
+                    graph.addEdge(from, to, in.nextWeight());
+                    arcs++;
+                } else {
+                    throw in.error("unknown line type '" + (char) kind + "'.");
+                }
+            }
+            if (graph == null) {
+                throw new IllegalArgumentException(file + ": no problem line.");
+            }
+            if (arcs != expectedArcs) {
+                throw new IllegalArgumentException(file + ": expected " + expectedArcs + " arcs but found " + arcs + ".");
+            }
+            return graph;
+        }
+    }
+
+    //O(V + E); edges are buffered in primitive arrays until the vertex count is known
+    public static AdjacencyListGraph readCsv(Path file, boolean isDirected) throws IOException {
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        double[] weight = new double[1024];
+        int edges = 0;
+        int maxVertex = -1;
+        long maxVertexLine = 0;
+        try (Tokenizer in = new Tokenizer(Files.newInputStream(file))) {
+            boolean firstLine = true;
+            while (in.nextLine()) {
+                int c = in.peekChar();
+                if (c == '#') {
+                    continue;
+                }
+                boolean header = firstLine && !(c >= '0' && c <= '9' || c == '+');
+                firstLine = false;
+                if (header) {
+                    continue;
+                }
+                if (edges == from.length) {
+                    from = Arrays.copyOf(from, edges * 2);
+                    to = Arrays.copyOf(to, edges * 2);
+                    weight = Arrays.copyOf(weight, edges * 2);
+                }
+                from[edges] = in.nextVertex(0, Integer.MAX_VALUE);
+                to[edges] = in.nextVertex(0, Integer.MAX_VALUE);
+                weight[edges] = in.hasToken() ? in.nextWeight() : 1;
+                if (in.hasToken()) {
+                    throw in.error("too many values.");
+                }
+                if (Math.max(from[edges], to[edges]) > maxVertex) {
+                    maxVertex = Math.max(from[edges], to[edges]);
+                    maxVertexLine = in.getLine();
+                }
+                edges++;
+            }
+            // checked once every edge is in, so files listing their largest vertices first still load
+            if (maxVertex >= 2L * edges + MAX_ISOLATED_VERTICES) {
+                throw in.error(maxVertexLine, "vertex " + maxVertex + " out of range for " + edges + " edges.");
+            }
+        }
+        AdjacencyListGraph graph = new AdjacencyListGraph(maxVertex + 1, isDirected);
+        for (int i = 0; i < edges; i++) {
+            graph.addEdge(from[i], to[i], weight[i]);
+        }
+        return graph;
+    }
+
+    // Splits lines into values separated by spaces, tabs or commas.
+    private static final class Tokenizer implements AutoCloseable {
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 16];
+        private int position = 0;
+        private int length = 0;
+        private final byte[] token = new byte[64];
+        private int tokenLength;
+        private long line = 1;
+        private boolean inLine = false;
+
+        Tokenizer(InputStream in) {
+            this.in = in;
+        }
+
+        private int peek() throws IOException {
+            if (position == length) {
+                position = 0;
+                length = Math.max(0, in.read(buffer, 0, buffer.length));
+                if (length == 0) {
+                    return -1;
+                }
+            }
+            return buffer[position];
+        }
+
+        private static boolean isSeparator(int c) {
+            return c == ' ' || c == '\t' || c == '\r' || c == ',';
+        }
+
+        private void skipSeparators() throws IOException {
+            while (isSeparator(peek())) {
+                position++;
+            }
+        }
+
+        // Moves past the rest of the current line to the next one with a value on it; false at the end of input.
+        boolean nextLine() throws IOException {
+            int c;
+            if (inLine) {
+                while ((c = peek()) != -1 && c != '\n') {
+                    position++;
+                }
+            }
+            while (true) {
+                skipSeparators();
+                c = peek();
+                if (c == -1) {
+                    inLine = false;
+                    return false;
+                }
+                if (c != '\n') {
+                    inLine = true;
+                    return true;
+                }
+                position++;
+                line++;
+            }
+        }
+
+        int peekChar() throws IOException {
+            skipSeparators();
+            return peek();
+        }
+
+        boolean hasToken() throws IOException {
+            int c = peekChar();
+            return c != -1 && c != '\n';
+        }
+
+        private void readToken() throws IOException {
+            if (!hasToken()) {
+                throw error("missing value.");
+            }
+            tokenLength = 0;
+            int c;
+            while ((c = peek()) != -1 && c != '\n' && !isSeparator(c)) {
+                if (tokenLength == token.length) {
+                    throw error("value too long.");
+                }
+                token[tokenLength++] = (byte) c;
+                position++;
+            }
+        }
+
+        void skipToken() throws IOException {
+            readToken();
+        }
+
+        String nextWord() throws IOException {
+            readToken();
+            return text();
+        }
+
+        // Digits only, with an optional sign; at most 18 digits so the value cannot overflow.
+        private boolean tokenIsInteger() {
+            int start = token[0] == '-' || token[0] == '+' ? 1 : 0;
+            if (start == tokenLength || tokenLength - start > 18) {
+                return false;
+            }
+            for (int i = start; i < tokenLength; i++) {
+                if (token[i] < '0' || token[i] > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long tokenValue() {
+            boolean negative = token[0] == '-';
+            int start = negative || token[0] == '+' ? 1 : 0;
+            long value = 0;
+            for (int i = start; i < tokenLength; i++) {
+                value = value * 10 + (token[i] - '0');
+            }
+            return negative ? -value : value;
+        }
+
+        long nextLong() throws IOException {
+            readToken();
+            if (!tokenIsInteger()) {
+                throw error("expected an integer but found '" + text() + "'.");
+            }
+            return tokenValue();
+        }
+
+        double nextDouble() throws IOException {
+            readToken();
+            if (tokenIsInteger()) {
+                return tokenValue();
+            }
+            try {
+                return Double.parseDouble(text());
+            } catch (NumberFormatException e) {
+                throw error("expected a number but found '" + text() + "'.");
+            }
+        }
+
+        // Edge weights, which every search here assumes are finite and not negative.
+        double nextWeight() throws IOException {
+            double weight = nextDouble();
+            if (!(weight >= 0) || weight == Double.POSITIVE_INFINITY) {
+                throw error("weight '" + text() + "' is not a finite non-negative number.");
+            }
+            return weight;
+        }
+
+        // Reads a vertex numbered from base and returns it 0-based, checked against [0, vertices).
+        int nextVertex(int base, int vertices) throws IOException {
+            long vertex = nextLong() - base;
+            if (vertex < 0 || vertex >= vertices) {
+                throw error("vertex " + (vertex + base) + " out of range.");
+            }
+            return (int) vertex;
+        }
+
+        private String text() {
+            return new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+        }
+
+        long getLine() {
+            return line;
+        }
+
+        IllegalArgumentException error(String message) {
+            return error(line, message);
+        }
+
+        IllegalArgumentException error(long line, String message) {
+            return new IllegalArgumentException("Line " + line + ": " + message);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -5,25 +5,40 @@ import java.awt.event.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class GraphVisualizer extends JPanel {
     static class Node {
+        static final int RADIUS = 10;
         String name;
         int x, y;
         boolean visible;
+        // name split into the lines drawn under the node, once instead of on every repaint
+        final String[] labelLines;
         public Node(String name, int x, int y, boolean visible) {
             this.name = name; this.x = x; this.y = y; this.visible = visible;
+            this.labelLines = name.split(" ");
         }
         public boolean contains(int mx, int my) {
-            int r = 10;
+            int r = RADIUS;
             return (mx - x)*(mx - x) + (my - y)*(my - y) <= r*r;
         }
     }
 
-    private final CArrayList<Node> nodes = new CArrayList<>();
-    private final AdjacencyListGraph graph;
+    private final VertexRegistry<Node> nodes = new VertexRegistry<>(node -> node.name);
+    private final Graph graph;
     private final CampusNavigator navigator;
-    private CArrayList<ScheduleEntry> scheduleEntries = new CArrayList<>();
+    private final SpatialIndex spatialIndex;
+    private CampusNavigator.IncrementalPlan plan;
+    // Planning runs on a SwingWorker. A new request cancels the one in flight, and only the worker
+    // holding planLock touches the plan, so rapid clicks never pile up searches.
+    private final ReentrantLock planLock = new ReentrantLock();
+    private PlanWorker planner;
 
     private final CArrayList<Node> clickedNodes       = new CArrayList<>();
     private final CArrayList<JCheckBox> backpackBoxes  = new CArrayList<>();
@@ -38,11 +53,21 @@ public class GraphVisualizer extends JPanel {
     private final JTextArea actionsDisplay;
 
     private BufferedImage backgroundImage;
+    // Cached layers at the current panel size: the scaled map, then the legend and nodes on a transparent
+    // layer. paintComponent only composites them and draws the path on top.
+    private BufferedImage backgroundLayer;
+    private BufferedImage nodeLayer;
+    private Font stepFont;
 
 
 
 
     public GraphVisualizer() {
+        this(null);
+    }
+
+    // Shows a saved map instead of the built-in campus; see saveSnapshot.
+    public GraphVisualizer(MapSnapshot map) {
         try {
             backgroundImage = ImageIO.read(new File("src/campusmap.png"));
         } catch (IOException e) {
@@ -80,10 +105,24 @@ public class GraphVisualizer extends JPanel {
         clickedScrollPane.setPreferredSize(new Dimension(300, 770));
 
 
-        setupNodes();
-        graph     = new AdjacencyListGraph(nodes.size(), false);
-        setupEdges();
+        if (map == null) {
+            setupNodes();
+            AdjacencyListGraph campus = new AdjacencyListGraph(nodes, false);
+            setupEdges(campus);
+            graph = campus;
+        } else {
+            for (int i = 0; i < map.getVertices(); i++) {
+                nodes.add(new Node(map.getName(i), (int) Math.round(map.getX(i)), (int) Math.round(map.getY(i)),
+                        map.isVisible(i)));
+            }
+            graph = map.getGraph();
+        }
         navigator = new CampusNavigator(graph, 1.5);
+        double[][] positions = nodePositions();
+        spatialIndex = new SpatialIndex(positions[0], positions[1]);
+        navigator.setHeuristic(new CoordinateHeuristic(graph, positions[0], positions[1]));
+        navigator.setSegmentCache(new SegmentCache(graph, 512));
+        plan = navigator.newIncrementalPlan();
 
         addMouseListener(new MouseAdapter() {
             @Override
@@ -93,13 +132,10 @@ public class GraphVisualizer extends JPanel {
                     repaint();
                     return;
                 }
-                for (int i = 0; i < nodes.size(); i++) {
-                    Node n = nodes.get(i);
-                    if (n.visible && n.contains(e.getX(), e.getY())) {
-                        handleClick(n);
-                        repaint();
-                        return;
-                    }
+                int hit = spatialIndex.nearest(e.getX(), e.getY(), Node.RADIUS, v -> nodes.get(v).visible);
+                if (hit != -1) {
+                    handleClick(nodes.get(hit));
+                    repaint();
                 }
             }
         });
@@ -128,18 +164,66 @@ public class GraphVisualizer extends JPanel {
         if (navigator == null || clickedNodes.isEmpty()) {
             return;
         }
-
-        scheduleEntries = new CArrayList<ScheduleEntry>();
+        CArrayList<ScheduleEntry> stops = new CArrayList<>();
         for (int i = 0; i < clickedNodes.size(); i++) {
-            Node n = clickedNodes.get(i);
-            boolean needBackpack;
-            needBackpack = backpackBoxes.get(i).isSelected();
-            scheduleEntries.add(new ScheduleEntry(getNodeIndex(n), needBackpack));
+            stops.add(new ScheduleEntry(nodes.indexOf(clickedNodes.get(i)), backpackBoxes.get(i).isSelected()));
+        }
+        if (planner != null) {
+            planner.cancel(true);
+        }
+        planner = new PlanWorker(stops);
+        planner.execute();
+    }
+
+    // Plans on a background thread, publishing the path up to each leg as it is found.
+    private class PlanWorker extends SwingWorker<CArrayList<CampusNavigator.Position>, CArrayList<CampusNavigator.Position>> {
+        private final CArrayList<ScheduleEntry> stops;
+
+        PlanWorker(CArrayList<ScheduleEntry> stops) {
+            this.stops = stops;
+        }
+
+        @Override
+        protected CArrayList<CampusNavigator.Position> doInBackground() throws InterruptedException {
+            planLock.lockInterruptibly();
+            try {
+                if (isCancelled()) {
+                    return null;
+                }
+                // only the legs touched since the last plan are searched again
+                plan.setStops(stops);
+                return plan.getFullPath(path -> publish(path));
+            } finally {
+                planLock.unlock();
+            }
         }
 
-        CArrayList<CampusNavigator.Position> fullPath =
-                navigator.computeFullSchedule(scheduleEntries);
+        @Override
+        protected void process(List<CArrayList<CampusNavigator.Position>> partialPaths) {
+            if (planner == this && !isCancelled()) {
+                lastFullPath = partialPaths.get(partialPaths.size() - 1);
+                repaint();
+            }
+        }
 
+        // A worker that was superseded while its result was on the way is ignored.
+        @Override
+        protected void done() {
+            if (planner != this || isCancelled()) {
+                return;
+            }
+            try {
+                showSchedule(get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                actionsDisplay.setText("Planning failed: " + e.getCause());
+                e.getCause().printStackTrace();
+            }
+        }
+    }
+
+    private void showSchedule(CArrayList<CampusNavigator.Position> fullPath) {
         pathNodes = new CArrayList<Node>();
         for (int i = 0; i < fullPath.size(); i++) {
             int v = fullPath.get(i).vertex;
@@ -147,40 +231,34 @@ public class GraphVisualizer extends JPanel {
         }
         this.lastFullPath = fullPath;
 
+        // how often each vertex was clicked, so every arrival is reported without rescanning the clicks
+        int[] clickCount = new int[nodes.size()];
+        for (int i = 0; i < clickedNodes.size(); i++) {
+            clickCount[nodes.indexOf(clickedNodes.get(i))]++;
+        }
+
         StringBuilder sb = new StringBuilder();
 
         for (int step = 0; step < fullPath.size(); step++) {
             CampusNavigator.Position p = fullPath.get(step);
 
-            String action;
-            if (p.action == null) {
-                action = "";
-            } else {
-                action = p.action.toLowerCase();
-            }
-
             String nodeName = nodes.get(p.vertex).name;
 
-            if (action.indexOf("drop") != -1) {
+            if (p.action == CampusNavigator.Action.DROP) {
                 sb.append("- Drop backpack at ").append(nodeName).append("\n");
             }
-            if (action.indexOf("pick up") != -1 || action.indexOf("pickup") != -1) {
+            if (p.action == CampusNavigator.Action.PICK_UP) {
                 sb.append("- Pick up backpack at ").append(nodeName).append("\n");
             }
-            boolean isStart = action.startsWith("start");
-            boolean isMove  = action.startsWith("move");
-            if (isStart || isMove) {
-                for (int i = 0; i < clickedNodes.size(); i++) {
-                    Node clicked = clickedNodes.get(i);
-                    if (getNodeIndex(clicked) == p.vertex) {
-                        sb.append("- Arrived at ").append(nodeName);
-                        if (p.carrying) {
-                            sb.append(" (carrying backpack)");
-                        } else {
-                            sb.append(" (no backpack)");
-                        }
-                        sb.append("\n");
+            if (p.action == CampusNavigator.Action.START || p.action == CampusNavigator.Action.MOVE) {
+                for (int i = 0; i < clickCount[p.vertex]; i++) {
+                    sb.append("- Arrived at ").append(nodeName);
+                    if (p.carrying) {
+                        sb.append(" (carrying backpack)");
+                    } else {
+                        sb.append(" (no backpack)");
                     }
+                    sb.append("\n");
                 }
             }
         }
@@ -192,6 +270,10 @@ public class GraphVisualizer extends JPanel {
     private void resetSelection() {
         clickedNodes.clear();
         backpackBoxes.clear();
+        if (planner != null) {
+            planner.cancel(true);
+            planner = null;
+        }
         pathNodes.clear();
         actionsDisplay.setText("");
         lastFullPath = null;
@@ -205,11 +287,15 @@ public class GraphVisualizer extends JPanel {
         clickedNodesPanel.repaint();
     }
 
-    private int getNodeIndex(Node node) {
+    // {x, y} of every node, indexed by vertex
+    private double[][] nodePositions() {
+        double[] xs = new double[nodes.size()];
+        double[] ys = new double[nodes.size()];
         for (int i = 0; i < nodes.size(); i++) {
-            if (nodes.get(i) == node) return i;
+            xs[i] = nodes.get(i).x;
+            ys[i] = nodes.get(i).y;
         }
-        return -1;
+        return new double[][]{xs, ys};
     }
 
     private void setupNodes() {
@@ -316,174 +402,208 @@ public class GraphVisualizer extends JPanel {
 
 
 
-    private void setupEdges() {
-        addEdgeByNames("B1", "B2", 11.03);
-        addEdgeByNames("B1", "B10", 19.82);
-        addEdgeByNames("B2", "B3", 2.01);
-        addEdgeByNames("B3", "B4", 1.9);
-        addEdgeByNames("B3", "ITN-B3-B4", 1);
-
-        addEdgeByNames("ITN-B3-B4", "B10", 11.80);
-        addEdgeByNames("B4", "B5", 5.16);
-        addEdgeByNames("B4", "ITN-B3-B4", 1);
-
-        addEdgeByNames("B5", "B6", 4.86);
-        addEdgeByNames("B6", "Breezeway", 3.33);
-        addEdgeByNames("B7", "Breezeway", 3.88);
-        addEdgeByNames("B7", "B8/B9", 5.15);
-
-        addEdgeByNames("Breezeway", "B12", 12.38);
-        addEdgeByNames("B13", "B12", 8.8);
-        addEdgeByNames("B14", "B12", 10);
-        addEdgeByNames("B12", "B11", 14.7);
-        addEdgeByNames("B10", "B11", 3.8);
-        addEdgeByNames("B13", "Student Center", 25.94);
-
-
-        addEdgeByNames("B10", "Schilling Square", 7.56);
-        addEdgeByNames("Schilling Square", "B12", 22.57);
-        addEdgeByNames("Schilling Square", "B14", 14.03);
-        addEdgeByNames("Schilling Square", "B17", 18.41);
-        addEdgeByNames("Schilling Square", "B20", 13.01);
-        addEdgeByNames("Schilling Square", "Chapel", 23.6);
-
-
-        addEdgeByNames("B14", "B15", 4);
-        addEdgeByNames("B15", "B16", 5.45);
-        addEdgeByNames("B16", "B17", 8.47);
-        addEdgeByNames("B17", "B18", 7.85);
-        addEdgeByNames("B18", "B20", 6.78);
-        addEdgeByNames("B18", "B19", 4.58);
-        addEdgeByNames("B19", "Chapel", 9.7);
-        addEdgeByNames("B24", "Chapel", 14.54);
-        addEdgeByNames("B24", "B23", 1);
-        addEdgeByNames("B22", "B23", 7.91);
-        addEdgeByNames("B22", "B21", 1);
-        addEdgeByNames("B17", "B21", 15.75);
-
-        addEdgeByNames("ARC", "B21", 29.12);
-        addEdgeByNames("Student Center", "B21", 32.2);
-        addEdgeByNames("Student Center", "ARC", 18.7);
-        addEdgeByNames("Dining Hall", "ARC", 20.1);
-        addEdgeByNames("Student Center", "Dining Hall", 22.75);
-
-        addEdgeByNames("Maker Court", "Dining Hall", 14.27);
-        addEdgeByNames("Maker Court", "S104", 2);
-        addEdgeByNames("Maker Court", "S106", 10);
-        addEdgeByNames("Maker Court", "S203", 17.24);
-        addEdgeByNames("Maker Court", "S106", 7.4);
-        addEdgeByNames("Junior Parking", "S106", 17.17);
-        addEdgeByNames("Junior Parking", "Monastery", 50);
-        addEdgeByNames("S202", "S203", 12.3);
-        addEdgeByNames("S202", "S201", 7.75);
-        addEdgeByNames("S201", "S101", 14.08);
-        addEdgeByNames("S102/S103", "S101", 5);
-        addEdgeByNames("S102/S103", "S104", 5);
-        addEdgeByNames("S101", "Dining Hall", 22.75);
-
-
-        addEdgeByNames("ITN-Dine-MS", "Dining Hall", 25.77);
-        addEdgeByNames("ITN-Dine-MS", "ITN-SRM-MS", 11.65);
-        addEdgeByNames("ITN-Dine-MS", "C1", 12.5);
-        addEdgeByNames("ITN-Dine-MS", "C2", 14.38);
-        addEdgeByNames("ITN-Dine-MS", "C7", 9.36);
-        addEdgeByNames("ITN-Dine-MS", "Church Square", 18.44);
-
-        addEdgeByNames("S101", "ITN-SRM-MS", 20.32);
-        addEdgeByNames("C4", "ITN-SRM-MS", 10.83);
-        addEdgeByNames("C4", "C5", 5.31);
-        addEdgeByNames("C6", "C5", 15.67);
-        addEdgeByNames("C6", "C3", 25.47);
-        addEdgeByNames("C2", "C3", 11.47);
-        addEdgeByNames("C2", "C1", 3);
-        addEdgeByNames("C2", "C7", 6.2);
-
-        addEdgeByNames("C8", "C7", 2.63);
-        addEdgeByNames("C8", "C9/ Learning Commons", 5.7);
-        addEdgeByNames("C10", "C9/ Learning Commons", 4.13);
-        addEdgeByNames("C10", "C11", 5.93);
-        addEdgeByNames("C12", "C11", 4.11);
-
-        addEdgeByNames("C10", "Church Square", 10.38);
-        addEdgeByNames("C3", "Church Square", 15.58);
-        addEdgeByNames("C8", "Church Square", 9.58);
-        addEdgeByNames("C1", "Church Square", 11);
-        addEdgeByNames("ITN-Dine-MS", "Church Square", 9.55);
-
-        addEdgeByNames("B1", "Founders Hall", 28.28);
-        addEdgeByNames("Fr.Egon Plaza", "Founders Hall", 8);
-        addEdgeByNames("Fr.Egon Plaza", "Schilling Square", 55.77);
-        addEdgeByNames("Fr.Egon Plaza", "PA1 Theater", 4.49);
-        addEdgeByNames("Fr.Egon Plaza", "PA2 Black Box", 3);
-        addEdgeByNames("Fr.Egon Plaza", "PA4 Choir", 4.49);
-        addEdgeByNames("PA4 Choir", "PA3 Orchestra", 6.2);
-        addEdgeByNames("PA2 Black Box", "PA3 Orchestra", 7.13);
-        addEdgeByNames("PA2 Black Box", "PA1 Theater", 9.67);
-        addEdgeByNames("PA2 Black Box", "PA4 Choir", 8.03);
-
-        addEdgeByNames("ITN-dirtroad", "Dining Hall", 100.75);
-        addEdgeByNames("ITN-dirtroad", "Gym Parking", 40);
-        addEdgeByNames("ITN-dirtroad", "Tennis Courts", 80.84);
-        addEdgeByNames("Kalman Field", "Tennis Courts", 50);
-        addEdgeByNames("Basketball Courts", "Tennis Courts", 50);
-        addEdgeByNames("Kalman Field", "Basketball Courts", 11.27);
-        addEdgeByNames("Fitness Room", "Basketball Courts", 15.49);
-        addEdgeByNames("Fitness Room", "Pool", 2);
-        addEdgeByNames("Fitness Room", "Gym", 2);
-        addEdgeByNames("Gym", "Pool", 25.59);
-        addEdgeByNames("Gym", "Faculty Housing", 40);
-        addEdgeByNames("Gym", "Locker Rooms", 27.60);
-        addEdgeByNames("Gym Parking", "Locker Rooms", 16.75);
-        addEdgeByNames("Gym Parking", "Pool", 11.95);
-        addEdgeByNames("Gym Parking", "PA1 Theater", 32.86);
-        addEdgeByNames("Gym Parking", "PA3 Orchestra", 30);
-        addEdgeByNames("Locker Rooms", "PA3 Orchestra", 43.4);
-
-        addEdgeByNames("Nurse's Office/Health Center", "B13", 72.19);
-        addEdgeByNames("Nurse's Office/Health Center", "Boys Dorm", 45.96);
-        addEdgeByNames("B13", "Boys Dorm", 40);
-        addEdgeByNames("Girls Dorm", "Boys Dorm", 35.54);
-        addEdgeByNames("Girls Dorm", "Student Center", 27.59);
-
-        addEdgeByNames("Franklin Garden", "C4", 70);
-
-
-        addEdgeByNames("Franklin Garden", "C4", 70);
+    private void setupEdges(AdjacencyListGraph campus) {
+        addEdgeByNames(campus, "B1", "B2", 11.03);
+        addEdgeByNames(campus, "B1", "B10", 19.82);
+        addEdgeByNames(campus, "B2", "B3", 2.01);
+        addEdgeByNames(campus, "B3", "B4", 1.9);
+        addEdgeByNames(campus, "B3", "ITN-B3-B4", 1);
+
+        addEdgeByNames(campus, "ITN-B3-B4", "B10", 11.80);
+        addEdgeByNames(campus, "B4", "B5", 5.16);
+        addEdgeByNames(campus, "B4", "ITN-B3-B4", 1);
+
+        addEdgeByNames(campus, "B5", "B6", 4.86);
+        addEdgeByNames(campus, "B6", "Breezeway", 3.33);
+        addEdgeByNames(campus, "B7", "Breezeway", 3.88);
+        addEdgeByNames(campus, "B7", "B8/B9", 5.15);
+
+        addEdgeByNames(campus, "Breezeway", "B12", 12.38);
+        addEdgeByNames(campus, "B13", "B12", 8.8);
+        addEdgeByNames(campus, "B14", "B12", 10);
+        addEdgeByNames(campus, "B12", "B11", 14.7);
+        addEdgeByNames(campus, "B10", "B11", 3.8);
+        addEdgeByNames(campus, "B13", "Student Center", 25.94);
+
+
+        addEdgeByNames(campus, "B10", "Schilling Square", 7.56);
+        addEdgeByNames(campus, "Schilling Square", "B12", 22.57);
+        addEdgeByNames(campus, "Schilling Square", "B14", 14.03);
+        addEdgeByNames(campus, "Schilling Square", "B17", 18.41);
+        addEdgeByNames(campus, "Schilling Square", "B20", 13.01);
+        addEdgeByNames(campus, "Schilling Square", "Chapel", 23.6);
+
+
+        addEdgeByNames(campus, "B14", "B15", 4);
+        addEdgeByNames(campus, "B15", "B16", 5.45);
+        addEdgeByNames(campus, "B16", "B17", 8.47);
+        addEdgeByNames(campus, "B17", "B18", 7.85);
+        addEdgeByNames(campus, "B18", "B20", 6.78);
+        addEdgeByNames(campus, "B18", "B19", 4.58);
+        addEdgeByNames(campus, "B19", "Chapel", 9.7);
+        addEdgeByNames(campus, "B24", "Chapel", 14.54);
+        addEdgeByNames(campus, "B24", "B23", 1);
+        addEdgeByNames(campus, "B22", "B23", 7.91);
+        addEdgeByNames(campus, "B22", "B21", 1);
+        addEdgeByNames(campus, "B17", "B21", 15.75);
+
+        addEdgeByNames(campus, "ARC", "B21", 29.12);
+        addEdgeByNames(campus, "Student Center", "B21", 32.2);
+        addEdgeByNames(campus, "Student Center", "ARC", 18.7);
+        addEdgeByNames(campus, "Dining Hall", "ARC", 20.1);
+        addEdgeByNames(campus, "Student Center", "Dining Hall", 22.75);
+
+        addEdgeByNames(campus, "Maker Court", "Dining Hall", 14.27);
+        addEdgeByNames(campus, "Maker Court", "S104", 2);
+        addEdgeByNames(campus, "Maker Court", "S106", 10);
+        addEdgeByNames(campus, "Maker Court", "S203", 17.24);
+        addEdgeByNames(campus, "Maker Court", "S106", 7.4);
+        addEdgeByNames(campus, "Junior Parking", "S106", 17.17);
+        addEdgeByNames(campus, "Junior Parking", "Monastery", 50);
+        addEdgeByNames(campus, "S202", "S203", 12.3);
+        addEdgeByNames(campus, "S202", "S201", 7.75);
+        addEdgeByNames(campus, "S201", "S101", 14.08);
+        addEdgeByNames(campus, "S102/S103", "S101", 5);
+        addEdgeByNames(campus, "S102/S103", "S104", 5);
+        addEdgeByNames(campus, "S101", "Dining Hall", 22.75);
+
+
+        addEdgeByNames(campus, "ITN-Dine-MS", "Dining Hall", 25.77);
+        addEdgeByNames(campus, "ITN-Dine-MS", "ITN-SRM-MS", 11.65);
+        addEdgeByNames(campus, "ITN-Dine-MS", "C1", 12.5);
+        addEdgeByNames(campus, "ITN-Dine-MS", "C2", 14.38);
+        addEdgeByNames(campus, "ITN-Dine-MS", "C7", 9.36);
+        addEdgeByNames(campus, "ITN-Dine-MS", "Church Square", 18.44);
+
+        addEdgeByNames(campus, "S101", "ITN-SRM-MS", 20.32);
+        addEdgeByNames(campus, "C4", "ITN-SRM-MS", 10.83);
+        addEdgeByNames(campus, "C4", "C5", 5.31);
+        addEdgeByNames(campus, "C6", "C5", 15.67);
+        addEdgeByNames(campus, "C6", "C3", 25.47);
+        addEdgeByNames(campus, "C2", "C3", 11.47);
+        addEdgeByNames(campus, "C2", "C1", 3);
+        addEdgeByNames(campus, "C2", "C7", 6.2);
+
+        addEdgeByNames(campus, "C8", "C7", 2.63);
+        addEdgeByNames(campus, "C8", "C9/ Learning Commons", 5.7);
+        addEdgeByNames(campus, "C10", "C9/ Learning Commons", 4.13);
+        addEdgeByNames(campus, "C10", "C11", 5.93);
+        addEdgeByNames(campus, "C12", "C11", 4.11);
+
+        addEdgeByNames(campus, "C10", "Church Square", 10.38);
+        addEdgeByNames(campus, "C3", "Church Square", 15.58);
+        addEdgeByNames(campus, "C8", "Church Square", 9.58);
+        addEdgeByNames(campus, "C1", "Church Square", 11);
+        addEdgeByNames(campus, "ITN-Dine-MS", "Church Square", 9.55);
+
+        addEdgeByNames(campus, "B1", "Founders Hall", 28.28);
+        addEdgeByNames(campus, "Fr.Egon Plaza", "Founders Hall", 8);
+        addEdgeByNames(campus, "Fr.Egon Plaza", "Schilling Square", 55.77);
+        addEdgeByNames(campus, "Fr.Egon Plaza", "PA1 Theater", 4.49);
+        addEdgeByNames(campus, "Fr.Egon Plaza", "PA2 Black Box", 3);
+        addEdgeByNames(campus, "Fr.Egon Plaza", "PA4 Choir", 4.49);
+        addEdgeByNames(campus, "PA4 Choir", "PA3 Orchestra", 6.2);
+        addEdgeByNames(campus, "PA2 Black Box", "PA3 Orchestra", 7.13);
+        addEdgeByNames(campus, "PA2 Black Box", "PA1 Theater", 9.67);
+        addEdgeByNames(campus, "PA2 Black Box", "PA4 Choir", 8.03);
+
+        addEdgeByNames(campus, "ITN-dirtroad", "Dining Hall", 100.75);
+        addEdgeByNames(campus, "ITN-dirtroad", "Gym Parking", 40);
+        addEdgeByNames(campus, "ITN-dirtroad", "Tennis Courts", 80.84);
+        addEdgeByNames(campus, "Kalman Field", "Tennis Courts", 50);
+        addEdgeByNames(campus, "Basketball Courts", "Tennis Courts", 50);
+        addEdgeByNames(campus, "Kalman Field", "Basketball Courts", 11.27);
+        addEdgeByNames(campus, "Fitness Room", "Basketball Courts", 15.49);
+        addEdgeByNames(campus, "Fitness Room", "Pool", 2);
+        addEdgeByNames(campus, "Fitness Room", "Gym", 2);
+        addEdgeByNames(campus, "Gym", "Pool", 25.59);
+        addEdgeByNames(campus, "Gym", "Faculty Housing", 40);
+        addEdgeByNames(campus, "Gym", "Locker Rooms", 27.60);
+        addEdgeByNames(campus, "Gym Parking", "Locker Rooms", 16.75);
+        addEdgeByNames(campus, "Gym Parking", "Pool", 11.95);
+        addEdgeByNames(campus, "Gym Parking", "PA1 Theater", 32.86);
+        addEdgeByNames(campus, "Gym Parking", "PA3 Orchestra", 30);
+        addEdgeByNames(campus, "Locker Rooms", "PA3 Orchestra", 43.4);
+
+        addEdgeByNames(campus, "Nurse's Office/Health Center", "B13", 72.19);
+        addEdgeByNames(campus, "Nurse's Office/Health Center", "Boys Dorm", 45.96);
+        addEdgeByNames(campus, "B13", "Boys Dorm", 40);
+        addEdgeByNames(campus, "Girls Dorm", "Boys Dorm", 35.54);
+        addEdgeByNames(campus, "Girls Dorm", "Student Center", 27.59);
+
+        addEdgeByNames(campus, "Franklin Garden", "C4", 70);
+
+
+        addEdgeByNames(campus, "Franklin Garden", "C4", 70);
 
 
     }
 
-    private int findNodeIndexByName(String name) {
-        for (int i = 0; i < nodes.size(); i++) {
-            if (nodes.get(i).name.equals(name)) {
-                return i;
-            }
+    private void addEdgeByNames(AdjacencyListGraph campus, String name1, String name2, double weight) {
+        if (nodes.indexOfName(name1) == -1 || nodes.indexOfName(name2) == -1) {
+            throw new IllegalArgumentException("Unknown node(s): " + name1 + ", " + name2);
         }
-        return -1;
+        campus.addEdge(name1, name2, weight);
     }
 
-    private void addEdgeByNames(String name1, String name2, double weight) {
-        int index1 = findNodeIndexByName(name1);
-        int index2 = findNodeIndexByName(name2);
-        if (index1 == -1 || index2 == -1) {
-            throw new IllegalArgumentException("Unknown node(s): " + name1 + ", " + name2);
+    // Writes the current map so later runs can start from it with "GraphVisualizer <file>".
+    public void saveSnapshot(Path file) throws IOException {
+        String[] names = new String[nodes.size()];
+        double[] xs = new double[nodes.size()];
+        double[] ys = new double[nodes.size()];
+        boolean[] visible = new boolean[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            Node n = nodes.get(i);
+            names[i] = n.name;
+            xs[i] = n.x;
+            ys[i] = n.y;
+            visible[i] = n.visible;
         }
-        graph.addEdge(index1, index2, weight);
+        MapSnapshot.write(file, graph, names, xs, ys, visible);
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (nodeLayer == null || nodeLayer.getWidth() != width || nodeLayer.getHeight() != height) {
+            backgroundLayer = backgroundImage == null ? null : renderBackground(width, height);
+            nodeLayer = renderNodes(width, height);
+        }
+
+        if (backgroundLayer != null) {
+            g2.drawImage(backgroundLayer, 0, 0, null);
+        }
+        g2.drawImage(nodeLayer, 0, 0, null);
+        paintPath(g2);
+    }
+
+    // Scaling the map is the expensive part of a repaint, so it happens once per panel size.
+    private BufferedImage renderBackground(int width, int height) {
+        BufferedImage layer = createLayer(width, height, Transparency.OPAQUE);
+        Graphics2D g2 = layer.createGraphics();
+        g2.setColor(getBackground());
+        g2.fillRect(0, 0, width, height);
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.drawImage(backgroundImage, 0, 0, width, height, null);
+        g2.dispose();
+        return layer;
+    }
 
-        if (backgroundImage != null) {
-            g2.drawImage(
-                    backgroundImage,
-                    0, 0,
-                    getWidth(), getHeight(),
-                    null
-            );
+    private BufferedImage renderNodes(int width, int height) {
+        BufferedImage layer = createLayer(width, height, Transparency.TRANSLUCENT);
+        Graphics2D g2 = layer.createGraphics();
+        // match the text rendering the panel itself would get
+        Object desktopHints = Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+        if (desktopHints instanceof Map) {
+            g2.addRenderingHints((Map<?, ?>) desktopHints);
         }
+        g2.setFont(getFont());
 
         g2.setColor(Color.RED);
         g2.drawLine(20, 20, 60, 20);
@@ -503,65 +623,89 @@ public class GraphVisualizer extends JPanel {
             g2.setColor(Color.BLACK);
             g2.drawRect(n.x - 10, n.y - 10, 20, 20);
 
-            String[] words = n.name.split(" ");
             int lineHeight = 15;
-            for (int j = 0; j < words.length; j++) {
-                g2.drawString(words[j], n.x - 10, n.y + 25 + j * lineHeight);
+            for (int j = 0; j < n.labelLines.length; j++) {
+                g2.drawString(n.labelLines[j], n.x - 10, n.y + 25 + j * lineHeight);
             }
         }
+        g2.dispose();
+        return layer;
+    }
 
-        if (lastFullPath != null && lastFullPath.size() >= 2) {
-            for (int i = 0; i < lastFullPath.size() - 1; i++) {
-                CampusNavigator.Position p     = lastFullPath.get(i);
-                CampusNavigator.Position nextP = lastFullPath.get(i + 1);
-                Node a = nodes.get(p.vertex);
-                Node b = nodes.get(nextP.vertex);
-
-                if (p.carrying) {
-                    g2.setColor(Color.RED);
-                } else {
-                    g2.setColor(Color.ORANGE);
-                }
-                g2.drawLine(a.x, a.y, b.x, b.y);
-
-                double dx = b.x - a.x, dy = b.y - a.y;
-                double len = Math.hypot(dx, dy);
-                double ux = dx / len, uy = dy / len;
-                int mx = (int)(a.x + ux * len * 0.8);
-                int my = (int)(a.y + uy * len * 0.8);
-                int px = (int)(-uy * 5), py = (int)(ux * 5);
-
-                int[] xs = {
-                        mx,
-                        mx - (int)(ux * 10) + px,
-                        mx - (int)(ux * 10) - px
-                };
-                int[] ys = {
-                        my,
-                        my - (int)(uy * 10) + py,
-                        my - (int)(uy * 10) - py
-                };
-                g2.fillPolygon(xs, ys, 3);
+    // Images in the screen's pixel format draw without conversion; headless runs fall back to plain RGB(A).
+    private BufferedImage createLayer(int width, int height, int transparency) {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        if (config != null) {
+            return config.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height,
+                transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+
+    // The only per-repaint drawing: path segments with arrows and the numbered stops.
+    private void paintPath(Graphics2D g2) {
+        if (lastFullPath == null || lastFullPath.size() < 2) {
+            return;
+        }
+        for (int i = 0; i < lastFullPath.size() - 1; i++) {
+            CampusNavigator.Position p     = lastFullPath.get(i);
+            CampusNavigator.Position nextP = lastFullPath.get(i + 1);
+            Node a = nodes.get(p.vertex);
+            Node b = nodes.get(nextP.vertex);
+
+            if (p.carrying) {
+                g2.setColor(Color.RED);
+            } else {
+                g2.setColor(Color.ORANGE);
             }
+            g2.drawLine(a.x, a.y, b.x, b.y);
+
+            double dx = b.x - a.x, dy = b.y - a.y;
+            double len = Math.hypot(dx, dy);
+            double ux = dx / len, uy = dy / len;
+            int mx = (int)(a.x + ux * len * 0.8);
+            int my = (int)(a.y + uy * len * 0.8);
+            int px = (int)(-uy * 5), py = (int)(ux * 5);
+
+            int[] xs = {
+                    mx,
+                    mx - (int)(ux * 10) + px,
+                    mx - (int)(ux * 10) - px
+            };
+            int[] ys = {
+                    my,
+                    my - (int)(uy * 10) + py,
+                    my - (int)(uy * 10) - py
+            };
+            g2.fillPolygon(xs, ys, 3);
+        }
 
-            g2.setFont(g2.getFont().deriveFont(Font.BOLD, 12f));
-            for (int i = 0; i < lastFullPath.size(); i++) {
-                Node n = nodes.get(lastFullPath.get(i).vertex);
-                String num = Integer.toString(i + 1);
+        if (stepFont == null) {
+            stepFont = g2.getFont().deriveFont(Font.BOLD, 12f);
+        }
+        g2.setFont(stepFont);
+        for (int i = 0; i < lastFullPath.size(); i++) {
+            Node n = nodes.get(lastFullPath.get(i).vertex);
+            String num = Integer.toString(i + 1);
 
-                g2.setColor(Color.WHITE);
-                g2.fillOval(n.x - 6, n.y - 6, 12, 12);
+            g2.setColor(Color.WHITE);
+            g2.fillOval(n.x - 6, n.y - 6, 12, 12);
 
-                g2.setColor(Color.BLACK);
-                g2.drawString(num, n.x - 3, n.y + 4);
-            }
+            g2.setColor(Color.BLACK);
+            g2.drawString(num, n.x - 3, n.y + 4);
         }
     }
 
 
-    public static void main(String[] args) {
+    // GraphVisualizer [map snapshot] | GraphVisualizer --export <file>
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2 && args[0].equals("--export")) {
+            new GraphVisualizer().saveSnapshot(Paths.get(args[1]));
+            return;
+        }
+        MapSnapshot map = args.length > 0 ? MapSnapshot.read(Paths.get(args[0])) : null;
         JFrame f = new JFrame("Campus Navigator");
-        GraphVisualizer panel = new GraphVisualizer();
+        GraphVisualizer panel = new GraphVisualizer(map);
         panel.setPreferredSize(new Dimension(1300,770));
         JSplitPane split = new JSplitPane(
                 JSplitPane.HORIZONTAL_SPLIT,
@@ -0,0 +1,5 @@
+// Lower bound on the remaining cost from vertex to goal. A* needs it to be admissible
+// (never above the true distance) and, to settle each state once, consistent.
+interface Heuristic {
+    double estimate(int vertex, int goal);
+}
\ No newline at end of file
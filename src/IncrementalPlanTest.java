@@ -0,0 +1,71 @@
+import java.util.Random;
+
+// Randomized check of CampusNavigator.IncrementalPlan: java IncrementalPlanTest [seed]
+// Stops are appended, removed and toggled one at a time, and after every change getFullPath must
+// match computeFullSchedule over the same stops step for step: vertex, backpack state, cost and action.
+// Prints the first mismatch and exits with status 1, or "ok" when every plan agrees.
+public class IncrementalPlanTest {
+    public static void main(String[] args) {
+        Random random = new Random(args.length > 0 ? Long.parseLong(args[0]) : 1);
+        try {
+            check(random);
+        } catch (IllegalStateException e) {
+            System.out.println("FAIL  " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("ok");
+    }
+
+    private static void check(Random random) {
+        for (int trial = 0; trial < 30; trial++) {
+            int n = 10 + random.nextInt(20);
+            AdjacencyListGraph graph = new AdjacencyListGraph(n, false);
+            // a spine keeps every stop reachable
+            for (int v = 0; v + 1 < n; v++) {
+                graph.addEdge(v, v + 1, 5 + random.nextInt(20));
+            }
+            for (int i = 0; i < 2 * n; i++) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(6) == 0 ? 0 : 1 + random.nextInt(30));
+            }
+            CampusNavigator navigator = new CampusNavigator(graph, 1.5);
+            if (trial % 2 == 1) {
+                navigator.setHeapArity(4);
+            }
+            CampusNavigator.IncrementalPlan plan = navigator.newIncrementalPlan();
+            CArrayList<ScheduleEntry> schedule = new CArrayList<>();
+            for (int step = 0; step < 25; step++) {
+                if (schedule.size() < 2 || random.nextInt(3) > 0) {
+                    int vertex = random.nextInt(n);
+                    boolean requiresBackpack = random.nextBoolean();
+                    schedule.add(new ScheduleEntry(vertex, requiresBackpack));
+                    plan.appendStop(vertex, requiresBackpack);
+                } else if (random.nextInt(5) == 0) {
+                    schedule.removeIndex(schedule.size() - 1);
+                    plan.removeLastStop();
+                } else {
+                    int stop = random.nextInt(schedule.size());
+                    ScheduleEntry entry = schedule.get(stop);
+                    schedule.set(stop, new ScheduleEntry(entry.vertex, !entry.requiresBackpack));
+                    plan.setRequiresBackpack(stop, !entry.requiresBackpack);
+                }
+                String expected = describe(navigator.computeFullSchedule(schedule));
+                String actual = describe(plan.getFullPath());
+                if (!expected.equals(actual)) {
+                    throw new IllegalStateException("trial " + trial + " step " + step + ": incremental route\n" + actual +
+                            "differs from computeFullSchedule\n" + expected);
+                }
+            }
+        }
+    }
+
+    private static String describe(CArrayList<CampusNavigator.Position> path) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < path.size(); i++) {
+            CampusNavigator.Position position = path.get(i);
+            text.append(position.vertex).append(' ').append(position.carrying).append(' ')
+                    .append(position.backpackLocation).append(' ').append(position.cost).append(' ')
+                    .append(position.describeAction()).append('\n');
+        }
+        return text.toString();
+    }
+}
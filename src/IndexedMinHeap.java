@@ -0,0 +1,233 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+// d-ary min-heap over int keys with double priorities. Each key is in the heap at most once,
+// so the size is bounded by the number of distinct keys, and decreaseKey moves an entry in place.
+public class IndexedMinHeap {
+    private final int arity;
+    private int[] keys;          // heap position -> key
+    private double[] priorities; // heap position -> priority
+    private int[] positions;     // key -> heap position, or -1 when absent
+    private int size;
+
+    public IndexedMinHeap(int keyCapacity) {
+        this(keyCapacity, 2);
+    }
+
+    public IndexedMinHeap(int keyCapacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2.");
+        }
+        this.arity = arity;
+        int capacity = Math.max(1, keyCapacity);
+        this.keys = new int[capacity];
+        this.priorities = new double[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+        this.size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    public boolean contains(int key) {
+        return key >= 0 && key < positions.length && positions[key] != -1;
+    }
+
+    //O(log_d n)
+    public void insert(int key, double priority) {
+        if (key < 0) {
+            throw new IndexOutOfBoundsException("Key " + key + " out of bounds.");
+        }
+        ensureKeyCapacity(key + 1);
+        if (positions[key] != -1) {
+            throw new IllegalArgumentException("Key " + key + " is already in the heap.");
+        }
+        keys[size] = key;
+        priorities[size] = priority;
+        positions[key] = size;
+        swim(size++);
+    }
+
+    //O(log_d n)
+    public void decreaseKey(int key, double priority) {
+        if (!contains(key)) {
+            throw new NoSuchElementException("Key " + key + " is not in the heap.");
+        }
+        int index = positions[key];
+        if (priority > priorities[index]) {
+            throw new IllegalArgumentException("New priority is larger than the current one.");
+        }
+        priorities[index] = priority;
+        swim(index);
+    }
+
+    // Inserts the key, or lowers its priority if it is already queued with a larger one.
+    public boolean insertOrDecrease(int key, double priority) {
+        if (!contains(key)) {
+            insert(key, priority);
+            return true;
+        }
+        if (priority < priorities[positions[key]]) {
+            decreaseKey(key, priority);
+            return true;
+        }
+        return false;
+    }
+
+    // Inserts the key, or moves it to the new priority in either direction.
+    //O(d log_d n)
+    public void insertOrUpdate(int key, double priority) {
+        if (!contains(key)) {
+            insert(key, priority);
+            return;
+        }
+        int index = positions[key];
+        double old = priorities[index];
+        priorities[index] = priority;
+        if (priority < old) {
+            swim(index);
+        } else {
+            sink(index);
+        }
+    }
+
+    //O(d log_d n); false if the key was not queued
+    public boolean remove(int key) {
+        if (!contains(key)) {
+            return false;
+        }
+        int index = positions[key];
+        positions[key] = -1;
+        size--;
+        if (index < size) {
+            double removed = priorities[index];
+            keys[index] = keys[size];
+            priorities[index] = priorities[size];
+            positions[keys[index]] = index;
+            if (priorities[index] < removed) {
+                swim(index);
+            } else {
+                sink(index);
+            }
+        }
+        return true;
+    }
+
+    public double priorityOf(int key) {
+        if (!contains(key)) {
+            throw new NoSuchElementException("Key " + key + " is not in the heap.");
+        }
+        return priorities[positions[key]];
+    }
+
+    public int minKey() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Priority queue is empty.");
+        }
+        return keys[0];
+    }
+
+    public double minPriority() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Priority queue is empty.");
+        }
+        return priorities[0];
+    }
+
+    //O(d log_d n)
+    public int removeMin() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Priority queue is empty.");
+        }
+        int result = keys[0];
+        positions[result] = -1;
+        size--;
+        if (size > 0) {
+            keys[0] = keys[size];
+            priorities[0] = priorities[size];
+            positions[keys[0]] = 0;
+            sink(0);
+        }
+        return result;
+    }
+
+    //O(size) rather than O(key capacity)
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[keys[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void ensureKeyCapacity(int capacity) {
+        if (capacity <= positions.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, positions.length * 2);
+        int oldCapacity = positions.length;
+        keys = Arrays.copyOf(keys, newCapacity);
+        priorities = Arrays.copyOf(priorities, newCapacity);
+        positions = Arrays.copyOf(positions, newCapacity);
+        Arrays.fill(positions, oldCapacity, newCapacity, -1);
+    }
+
+    private void swim(int index) {
+        int key = keys[index];
+        double priority = priorities[index];
+        while (index > 0) {
+            int parent = (index - 1) / arity;
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            move(parent, index);
+            index = parent;
+        }
+        place(key, priority, index);
+    }
+
+    private void sink(int index) {
+        int key = keys[index];
+        double priority = priorities[index];
+        while (true) {
+            int first = index * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int smallest = first;
+            for (int child = first + 1; child < last; child++) {
+                if (priorities[child] < priorities[smallest]) {
+                    smallest = child;
+                }
+            }
+            if (priorities[smallest] >= priority) {
+                break;
+            }
+            move(smallest, index);
+            index = smallest;
+        }
+        place(key, priority, index);
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        priorities[to] = priorities[from];
+        positions[keys[to]] = to;
+    }
+
+    private void place(int key, double priority, int index) {
+        keys[index] = key;
+        priorities[index] = priority;
+        positions[key] = index;
+    }
+}
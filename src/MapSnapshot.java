@@ -0,0 +1,216 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// A map saved as one binary file: the graph in compressed sparse row form plus a name, position and
+// visibility flag per vertex. Loading maps the file and bulk-copies each section into arrays, so it costs
+// a few memory copies instead of rebuilding the graph edge by edge.
+//
+// Layout, little-endian, every section naturally aligned:
+//   header    int magic "CMAP", int format version, int flags (1 = directed), int vertices,
+//             int edge entries, int name bytes, 8 reserved bytes
+//   weights   double[entries]     as in CompressedSparseRowGraph; undirected edges are stored both ways
+//   x, y      double[vertices] each
+//   offsets   int[vertices + 1]   row starts
+//   targets   int[entries]
+//   nameEnds  int[vertices]       end of each vertex's name in the name bytes
+//   visible   byte[vertices]      1 when the vertex is drawn and clickable
+//   names     UTF-8 bytes
+// A mapped file is limited to 2 GB, about 10^8 edge entries.
+public class MapSnapshot {
+    private static final int MAGIC = 0x50414D43;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int DIRECTED = 1;
+
+    private final CompressedSparseRowGraph graph;
+    private final String[] names;
+    private final double[] x;
+    private final double[] y;
+    private final boolean[] visible;
+
+    private MapSnapshot(CompressedSparseRowGraph graph, String[] names, double[] x, double[] y, boolean[] visible) {
+        this.graph = graph;
+        this.names = names;
+        this.x = x;
+        this.y = y;
+        this.visible = visible;
+    }
+
+    public CompressedSparseRowGraph getGraph() {
+        return graph;
+    }
+
+    public int getVertices() {
+        return graph.getVertices();
+    }
+
+    public String getName(int vertex) {
+        checkVertex(vertex);
+        return names[vertex];
+    }
+
+    public double getX(int vertex) {
+        checkVertex(vertex);
+        return x[vertex];
+    }
+
+    public double getY(int vertex) {
+        checkVertex(vertex);
+        return y[vertex];
+    }
+
+    public boolean isVisible(int vertex) {
+        checkVertex(vertex);
+        return visible[vertex];
+    }
+
+    //O(V+E)
+    public static void write(Path file, Graph graph, String[] names, double[] x, double[] y, boolean[] visible)
+            throws IOException {
+        int n = graph.getVertices();
+        if (names.length != n || x.length != n || y.length != n || visible.length != n) {
+            throw new IllegalArgumentException("Need one name, position and visibility flag per vertex.");
+        }
+        int[] offsets = new int[n + 1];
+        EdgeCursor edges = graph.edgeCursor();
+        for (int u = 0; u < n; u++) {
+            int degree = 0;
+            edges.reset(u);
+            while (edges.next()) {
+                degree++;
+            }
+            offsets[u + 1] = offsets[u] + degree;
+        }
+        int entries = offsets[n];
+        byte[][] encoded = new byte[n][];
+        long nameBytes = 0;
+        for (int u = 0; u < n; u++) {
+            encoded[u] = names[u].getBytes(StandardCharsets.UTF_8);
+            nameBytes += encoded[u].length;
+        }
+        long size = HEADER_BYTES + 8L * entries + 16L * n + 4L * (n + 1) + 4L * entries + 4L * n + n + nameBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Map too large for one snapshot file.");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(graph.isDirected() ? DIRECTED : 0)
+                    .putInt(n).putInt(entries).putInt((int) nameBytes).putLong(0);
+            for (int u = 0; u < n; u++) {
+                edges.reset(u);
+                while (edges.next()) {
+                    out.putDouble(edges.weight());
+                }
+            }
+            out.asDoubleBuffer().put(x).put(y);
+            out.position(out.position() + 16 * n);
+            out.asIntBuffer().put(offsets);
+            out.position(out.position() + 4 * (n + 1));
+            for (int u = 0; u < n; u++) {
+                edges.reset(u);
+                while (edges.next()) {
+                    out.putInt(edges.to());
+                }
+            }
+            int end = 0;
+            for (int u = 0; u < n; u++) {
+                end += encoded[u].length;
+                out.putInt(end);
+            }
+            for (int u = 0; u < n; u++) {
+                out.put((byte) (visible[u] ? 1 : 0));
+            }
+            for (int u = 0; u < n; u++) {
+                out.put(encoded[u]);
+            }
+            out.force();
+        }
+    }
+
+    //O(V+E) bulk copies plus one String per vertex name
+    public static MapSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw corrupt(file, "unexpected file size");
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            in.order(ByteOrder.LITTLE_ENDIAN);
+            if (in.getInt() != MAGIC) {
+                throw corrupt(file, "not a map snapshot");
+            }
+            if (in.getInt() != FORMAT_VERSION) {
+                throw corrupt(file, "unsupported format version");
+            }
+            boolean directed = (in.getInt() & DIRECTED) != 0;
+            int n = in.getInt();
+            int entries = in.getInt();
+            int nameBytes = in.getInt();
+            in.getLong();
+            if (n < 0 || entries < 0 || nameBytes < 0 || size != HEADER_BYTES + 8L * entries + 16L * n
+                    + 4L * (n + 1) + 4L * entries + 4L * n + n + nameBytes) {
+                throw corrupt(file, "section sizes do not match the file size");
+            }
+
+            double[] weights = new double[entries];
+            double[] x = new double[n];
+            double[] y = new double[n];
+            in.asDoubleBuffer().get(weights).get(x).get(y);
+            in.position(in.position() + 8 * (entries + 2 * n));
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[entries];
+            int[] nameEnds = new int[n];
+            in.asIntBuffer().get(offsets).get(targets).get(nameEnds);
+            in.position(in.position() + 4 * (n + 1 + entries + n));
+            byte[] flags = new byte[n];
+            byte[] nameData = new byte[nameBytes];
+            in.get(flags).get(nameData);
+
+            // one pass over the rows, so a damaged file fails here instead of inside a search
+            if (offsets[0] != 0 || offsets[n] != entries) {
+                throw corrupt(file, "bad row offsets");
+            }
+            for (int u = 0; u < n; u++) {
+                if (offsets[u + 1] < offsets[u]) {
+                    throw corrupt(file, "bad row offsets");
+                }
+            }
+            for (int target : targets) {
+                if (target < 0 || target >= n) {
+                    throw corrupt(file, "edge target out of range");
+                }
+            }
+            String[] names = new String[n];
+            boolean[] visible = new boolean[n];
+            int start = 0;
+            for (int u = 0; u < n; u++) {
+                if (nameEnds[u] < start || nameEnds[u] > nameBytes) {
+                    throw corrupt(file, "bad name table");
+                }
+                names[u] = new String(nameData, start, nameEnds[u] - start, StandardCharsets.UTF_8);
+                start = nameEnds[u];
+                visible[u] = flags[u] != 0;
+            }
+            CompressedSparseRowGraph graph = new CompressedSparseRowGraph(n, directed, offsets, targets, weights);
+            return new MapSnapshot(graph, names, x, y, visible);
+        }
+    }
+
+    private static IllegalArgumentException corrupt(Path file, String reason) {
+        return new IllegalArgumentException("Corrupt map snapshot " + file + ": " + reason + ".");
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= names.length) {
+            throw new IndexOutOfBoundsException("Vertex index out of bounds.");
+        }
+    }
+}
@@ -0,0 +1,6 @@
+// A graph that edges can be added to after construction.
+interface MutableGraph extends Graph {
+    void addEdge(int from, int to);
+
+    void addEdge(int from, int to, double weight);
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+import java.util.Random;
+
+// Randomized check of CampusNavigator.computeOptimalSchedule: java OptimalScheduleTest [seed]
+// The whole-schedule plan must be a real walk that serves every stop in order with the backpack state
+// it asks for, cost what its last step reports, never cost more than planning leg by leg, and cost the
+// same when A* is turned on.
+// Prints the first mismatch and exits with status 1, or "ok" when every plan passes.
+public class OptimalScheduleTest {
+    private static final double MULTIPLIER = 1.5;
+
+    public static void main(String[] args) {
+        Random random = new Random(args.length > 0 ? Long.parseLong(args[0]) : 1);
+        try {
+            check(random);
+        } catch (IllegalStateException e) {
+            System.out.println("FAIL  " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("ok");
+    }
+
+    private static void check(Random random) {
+        for (int trial = 0; trial < 60; trial++) {
+            int n = 12 + random.nextInt(10);
+            AdjacencyListGraph graph = new AdjacencyListGraph(n, false);
+            for (int v = 0; v + 1 < n; v++) {
+                graph.addEdge(v, v + 1, 1 + random.nextInt(20));
+            }
+            for (int i = 0; i < n; i++) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(20));
+            }
+            double[] x = new double[n];
+            double[] y = new double[n];
+            for (int v = 0; v < n; v++) {
+                x[v] = random.nextInt(100);
+                y[v] = random.nextInt(100);
+            }
+            CArrayList<ScheduleEntry> schedule = new CArrayList<>();
+            int stops = 2 + random.nextInt(6);
+            for (int i = 0; i < stops; i++) {
+                schedule.add(new ScheduleEntry(random.nextInt(n), random.nextBoolean()));
+            }
+
+            String context = "trial " + trial;
+            CampusNavigator navigator = new CampusNavigator(graph, MULTIPLIER);
+            CArrayList<CampusNavigator.Position> optimal = navigator.computeOptimalSchedule(schedule);
+            double cost = walkedCost(graph, optimal, schedule, context + " optimal");
+            double reported = optimal.get(optimal.size() - 1).cost;
+            if (Math.abs(cost - reported) > 1e-6) {
+                throw new IllegalStateException(context + ": optimal route walks " + cost + " but reports " + reported);
+            }
+
+            double legByLeg;
+            try {
+                legByLeg = walkedCost(graph, navigator.computeFullSchedule(schedule), schedule, context);
+            } catch (IllegalStateException e) {
+                // leg-by-leg planning can strand the backpack; the whole-schedule search cannot
+                legByLeg = Double.POSITIVE_INFINITY;
+            }
+            if (cost > legByLeg + 1e-9) {
+                throw new IllegalStateException(context + ": optimal " + cost + " costs more than leg by leg " + legByLeg);
+            }
+
+            CampusNavigator guided = new CampusNavigator(graph, MULTIPLIER);
+            guided.setHeuristic(new CoordinateHeuristic(graph, x, y));
+            double guidedCost = walkedCost(graph, guided.computeOptimalSchedule(schedule), schedule, context + " A*");
+            if (Math.abs(cost - guidedCost) > 1e-9) {
+                throw new IllegalStateException(context + ": A* plan costs " + guidedCost + ", expected " + cost);
+            }
+        }
+    }
+
+    // Replays the route step by step, checking every move uses an edge, drops and pick-ups are legal, and
+    // the stops are reached in order with the backpack state each asks for. Returns what the walk costs.
+    private static double walkedCost(Graph graph, CArrayList<CampusNavigator.Position> path,
+                                     CArrayList<ScheduleEntry> schedule, String context) {
+        if (path.isEmpty()) {
+            throw new IllegalStateException(context + ": empty route");
+        }
+        double cost = 0;
+        int nextStop = 1;
+        boolean carrying = true;
+        int backpack = path.get(0).vertex;
+        for (int i = 1; i <= path.size(); i++) {
+            CampusNavigator.Position at = path.get(i - 1);
+            while (nextStop < schedule.size() && at.vertex == schedule.get(nextStop).vertex
+                    && carrying == schedule.get(nextStop).requiresBackpack) {
+                nextStop++;
+            }
+            if (i == path.size()) {
+                break;
+            }
+            CampusNavigator.Position step = path.get(i);
+            switch (step.action) {
+                case MOVE:
+                    double weight = edgeWeight(graph, at.vertex, step.vertex);
+                    if (weight == Double.POSITIVE_INFINITY) {
+                        throw new IllegalStateException(context + ": no edge " + at.vertex + " -> " + step.vertex);
+                    }
+                    cost += weight * (carrying ? MULTIPLIER : 1);
+                    break;
+                case DROP:
+                    if (!carrying) {
+                        throw new IllegalStateException(context + ": dropped a backpack it was not carrying");
+                    }
+                    carrying = false;
+                    backpack = step.vertex;
+                    cost += 0.01;
+                    break;
+                case PICK_UP:
+                    if (carrying || backpack != step.vertex) {
+                        throw new IllegalStateException(context + ": picked up a backpack that is not there");
+                    }
+                    carrying = true;
+                    cost += 0.01;
+                    break;
+                default:
+                    throw new IllegalStateException(context + ": unexpected " + step.action + " step");
+            }
+        }
+        if (nextStop != schedule.size()) {
+            throw new IllegalStateException(context + ": route misses stop " + nextStop);
+        }
+        return cost;
+    }
+
+    // Lightest from -> to edge, or infinity when there is none.
+    private static double edgeWeight(Graph graph, int from, int to) {
+        double weight = Double.POSITIVE_INFINITY;
+        EdgeCursor edges = graph.edgeCursor();
+        edges.reset(from);
+        while (edges.next()) {
+            if (edges.to() == to) {
+                weight = Math.min(weight, edges.weight());
+            }
+        }
+        return weight;
+    }
+}
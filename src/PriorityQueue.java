@@ -46,6 +46,11 @@ public class PriorityQueue<T extends Comparable<T>> {
         return result;
     }
 
+    public void clear() {
+        this.queue.clear();
+        this.size = 0;
+    }
+
     public void add(T item) {
         this.queue.add(this.queue.size(), item);
         this.swim(this.size++);
@@ -0,0 +1,587 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Headless routing service over one map loaded at startup:
+//   java RoutingServer [--map campus.map] [--port 3000] [--html HTML.html]
+//                      [--max-stops 256] [--max-optimal-states 50000000]
+// The map is a MapSnapshot; "java GraphVisualizer --export campus.map" writes the campus.
+// The graph, navigator and indexes are built once and only read afterwards, so requests share them.
+//
+//   GET  /           the HTML front-end
+//   GET  /map        {"vertices": [{"name", "x", "y", "visible"}], "edges": [[from, to, weight]]}
+//   POST /route      {"from": v, "to": v}                      -> shortest path by Dijkstras
+//   POST /schedule   {"stops": [v | {"vertex": v, "backpack": true}], "optimal": false}
+//                                                              -> CampusNavigator schedule
+// A vertex v is an index, a name, or {"x": .., "y": ..}, which snaps to the nearest vertex.
+// Schedules are capped so one request cannot hold a core or the heap: at most maxStops stops, and "optimal"
+// only while its search space, about stops * V * (V + 1) states, stays within maxOptimalStates.
+public class RoutingServer {
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final int DEFAULT_MAX_STOPS = 256;
+    private static final long DEFAULT_MAX_OPTIMAL_STATES = 50_000_000L;
+
+    private final MapSnapshot map;
+    private final Graph graph;
+    private final VertexRegistry<String> names;
+    private final SpatialIndex spatialIndex;
+    private final CampusNavigator navigator;
+    private final byte[] frontEnd;
+    // Dijkstras keeps per-query arrays, so idle engines are pooled rather than tied to threads
+    private final ConcurrentLinkedQueue<Dijkstras> engines = new ConcurrentLinkedQueue<>();
+    private volatile byte[] mapJson;
+    private int maxStops = DEFAULT_MAX_STOPS;
+    private long maxOptimalStates = DEFAULT_MAX_OPTIMAL_STATES;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public RoutingServer(MapSnapshot map, byte[] frontEnd) {
+        this.map = map;
+        this.graph = map.getGraph();
+        this.frontEnd = frontEnd;
+        this.names = VertexRegistry.ofNames();
+        double[] xs = new double[map.getVertices()];
+        double[] ys = new double[map.getVertices()];
+        for (int v = 0; v < map.getVertices(); v++) {
+            names.add(map.getName(v));
+            xs[v] = map.getX(v);
+            ys[v] = map.getY(v);
+        }
+        this.spatialIndex = new SpatialIndex(xs, ys);
+        this.navigator = new CampusNavigator(graph, 1.5);
+        navigator.setHeuristic(new CoordinateHeuristic(graph, xs, ys));
+        navigator.setSegmentCache(new SegmentCache(graph, 4096));
+    }
+
+    public void setMaxStops(int maxStops) {
+        if (maxStops < 1) {
+            throw new IllegalArgumentException("A schedule needs at least one stop.");
+        }
+        this.maxStops = maxStops;
+    }
+
+    public void setMaxOptimalStates(long maxOptimalStates) {
+        if (maxOptimalStates < 0) {
+            throw new IllegalArgumentException("State limit must not be negative.");
+        }
+        this.maxOptimalStates = maxOptimalStates;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path mapFile = Paths.get("campus.map");
+        Path htmlFile = Paths.get("HTML.html");
+        int port = 3000;
+        int maxStops = DEFAULT_MAX_STOPS;
+        long maxOptimalStates = DEFAULT_MAX_OPTIMAL_STATES;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--map":
+                    mapFile = Paths.get(args[i + 1]);
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--html":
+                    htmlFile = Paths.get(args[i + 1]);
+                    break;
+                case "--max-stops":
+                    maxStops = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--max-optimal-states":
+                    maxOptimalStates = Long.parseLong(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (!Files.exists(mapFile)) {
+            System.err.println("No map at " + mapFile + "; write one with: java GraphVisualizer --export " + mapFile);
+            System.exit(1);
+        }
+        byte[] frontEnd = Files.exists(htmlFile) ? Files.readAllBytes(htmlFile) : null;
+        RoutingServer routingServer = new RoutingServer(MapSnapshot.read(mapFile), frontEnd);
+        routingServer.setMaxStops(maxStops);
+        routingServer.setMaxOptimalStates(maxOptimalStates);
+        routingServer.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(routingServer::stop));
+        System.out.println("Routing " + routingServer.map.getVertices() + " vertices on http://localhost:" +
+                routingServer.getPort() + "/");
+    }
+
+    // Port 0 picks a free port; see getPort.
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::serveFrontEnd);
+        server.createContext("/map", exchange -> handle(exchange, "GET", body -> mapJson()));
+        server.createContext("/route", exchange -> handle(exchange, "POST", this::route));
+        server.createContext("/schedule", exchange -> handle(exchange, "POST", this::schedule));
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    // A virtual thread per request on JDK 21+, looked up reflectively so this still builds on 17.
+    // Older JDKs get one platform thread per core: searches are CPU-bound, so more would only queue.
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    private interface Endpoint {
+        byte[] respond(Map<String, Object> body);
+    }
+
+    // Shared request handling: method check, CORS for the file:// front-end, JSON body, and errors as JSON.
+    private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        try {
+            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+            if (exchange.getRequestMethod().equals("OPTIONS")) {
+                exchange.getResponseHeaders().set("Access-Control-Allow-Methods", method + ", OPTIONS");
+                exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type");
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+            if (!exchange.getRequestMethod().equals(method)) {
+                send(exchange, 405, error("Use " + method + "."));
+                return;
+            }
+            Map<String, Object> body = method.equals("POST") ? readBody(exchange) : null;
+            if (body == null && method.equals("POST")) {
+                send(exchange, 413, error("Request body over " + MAX_BODY_BYTES + " bytes."));
+                return;
+            }
+            send(exchange, 200, endpoint.respond(body));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            send(exchange, 500, error("Internal error."));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void serveFrontEnd(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if (frontEnd == null || !(path.equals("/") || path.equals("/index.html"))) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, frontEnd.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(frontEnd);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // null when the body is too large
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            return null;
+        }
+        Object parsed = JsonReader.parse(new String(bytes, StandardCharsets.UTF_8));
+        if (!(parsed instanceof Map)) {
+            throw new IllegalArgumentException("Request body must be a JSON object.");
+        }
+        return (Map<String, Object>) parsed;
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] json) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private static byte[] error(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        quote(json, message == null ? "Bad request." : message);
+        return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    //O((V+E)log V) per request in the worst case; bidirectional, so nearby pairs settle far less
+    private byte[] route(Map<String, Object> body) {
+        int from = vertexOf(require(body, "from"));
+        int to = vertexOf(require(body, "to"));
+        Dijkstras engine = engines.poll();
+        if (engine == null) {
+            engine = new Dijkstras(graph);
+            engine.setBidirectional(true);
+        }
+        ShortestPath path;
+        try {
+            path = engine.findShortestPath(from, to);
+        } finally {
+            engines.offer(engine);
+        }
+
+        StringBuilder json = new StringBuilder("{\"found\":").append(path.isFound());
+        json.append(",\"distance\":").append(path.isFound() ? Double.toString(path.getTotalWeight()) : "null");
+        json.append(",\"path\":[");
+        for (int i = 0; i < path.length(); i++) {
+            json.append(i > 0 ? "," : "").append(path.vertexAt(i));
+        }
+        json.append("],\"names\":[");
+        for (int i = 0; i < path.length(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            quote(json, names.getName(path.vertexAt(i)));
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] schedule(Map<String, Object> body) {
+        Object stopList = require(body, "stops");
+        if (!(stopList instanceof List)) {
+            throw new IllegalArgumentException("\"stops\" must be an array.");
+        }
+        int count = ((List<?>) stopList).size();
+        if (count > maxStops) {
+            throw new IllegalArgumentException("At most " + maxStops + " stops per schedule.");
+        }
+        boolean optimal = Boolean.TRUE.equals(body.get("optimal"));
+        long optimalStops = maxOptimalStates / Math.max(1, (long) map.getVertices() * (map.getVertices() + 1));
+        if (optimal && count > optimalStops) {
+            throw new IllegalArgumentException("At most " + optimalStops + " stops for an \"optimal\" schedule on this map.");
+        }
+        CArrayList<ScheduleEntry> stops = new CArrayList<>();
+        for (Object stop : (List<?>) stopList) {
+            boolean backpack = true;
+            Object vertex = stop;
+            if (stop instanceof Map && ((Map<?, ?>) stop).containsKey("vertex")) {
+                vertex = ((Map<?, ?>) stop).get("vertex");
+                Object flag = ((Map<?, ?>) stop).get("backpack");
+                backpack = flag == null || Boolean.TRUE.equals(flag);
+            }
+            stops.add(new ScheduleEntry(vertexOf(vertex), backpack));
+        }
+        CArrayList<CampusNavigator.Position> steps = optimal
+                ? navigator.computeOptimalSchedule(stops)
+                : navigator.computeFullSchedule(stops);
+
+        // legs of computeFullSchedule restart their costs at 0, so the total adds up each step's increase
+        double total = 0;
+        StringBuilder json = new StringBuilder("{\"steps\":[");
+        for (int i = 0; i < steps.size(); i++) {
+            CampusNavigator.Position p = steps.get(i);
+            if (i > 0) {
+                total += p.cost - (p.prev == null ? 0 : p.prev.cost);
+                json.append(',');
+            }
+            json.append("{\"vertex\":").append(p.vertex).append(",\"name\":");
+            quote(json, names.getName(p.vertex));
+            json.append(",\"action\":\"").append(p.action).append("\",\"carrying\":").append(p.carrying)
+                    .append(",\"backpackLocation\":").append(p.backpackLocation).append('}');
+        }
+        json.append("],\"totalCost\":").append(total).append('}');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Built on first use: large maps make a large document that most clients never ask for.
+    private byte[] mapJson() {
+        byte[] cached = mapJson;
+        if (cached != null) {
+            return cached;
+        }
+        StringBuilder json = new StringBuilder("{\"directed\":").append(graph.isDirected()).append(",\"vertices\":[");
+        for (int v = 0; v < map.getVertices(); v++) {
+            json.append(v > 0 ? ",{\"name\":" : "{\"name\":");
+            quote(json, map.getName(v));
+            json.append(",\"x\":").append(map.getX(v)).append(",\"y\":").append(map.getY(v))
+                    .append(",\"visible\":").append(map.isVisible(v)).append('}');
+        }
+        json.append("],\"edges\":[");
+        boolean first = true;
+        EdgeCursor edges = graph.edgeCursor();
+        for (int v = 0; v < map.getVertices(); v++) {
+            edges.reset(v);
+            while (edges.next()) {
+                // undirected edges are stored both ways; list each once
+                if (graph.isDirected() || v < edges.to()) {
+                    json.append(first ? "[" : ",[").append(v).append(',').append(edges.to()).append(',')
+                            .append(edges.weight()).append(']');
+                    first = false;
+                }
+            }
+        }
+        cached = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        mapJson = cached;
+        return cached;
+    }
+
+    private int vertexOf(Object value) {
+        if (value instanceof Double) {
+            double index = (Double) value;
+            if (index != Math.rint(index) || index < 0 || index >= map.getVertices()) {
+                throw new IllegalArgumentException("Vertex index out of bounds: " + value);
+            }
+            return (int) index;
+        }
+        if (value instanceof String) {
+            return names.requireName((String) value);
+        }
+        if (value instanceof Map) {
+            Object x = ((Map<?, ?>) value).get("x");
+            Object y = ((Map<?, ?>) value).get("y");
+            if (x instanceof Double && y instanceof Double && map.getVertices() > 0) {
+                return spatialIndex.nearest((Double) x, (Double) y);
+            }
+        }
+        throw new IllegalArgumentException("A vertex is an index, a name or {\"x\": .., \"y\": ..}.");
+    }
+
+    private static Object require(Map<String, Object> body, String key) {
+        if (!body.containsKey(key)) {
+            throw new IllegalArgumentException("Missing \"" + key + "\".");
+        }
+        return body.get(key);
+    }
+
+    private static void quote(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    // Just enough JSON for request bodies: objects become maps, arrays lists, numbers Doubles.
+    // Objects and arrays are parsed recursively, so their nesting is capped well below what overflows the stack.
+    private static final class JsonReader {
+        private static final int MAX_DEPTH = 64;
+
+        private final String text;
+        private int position = 0;
+        private int depth = 0;
+
+        private JsonReader(String text) {
+            this.text = text;
+        }
+
+        static Object parse(String text) {
+            JsonReader reader = new JsonReader(text);
+            Object value = reader.value();
+            reader.skipSpace();
+            if (reader.position != text.length()) {
+                throw reader.error("unexpected trailing text");
+            }
+            return value;
+        }
+
+        private Object value() {
+            skipSpace();
+            if (position >= text.length()) {
+                throw error("unexpected end of input");
+            }
+            char c = text.charAt(position);
+            switch (c) {
+                case '{':
+                case '[':
+                    if (++depth > MAX_DEPTH) {
+                        throw error("nested deeper than " + MAX_DEPTH + " levels");
+                    }
+                    Object nested = c == '{' ? object() : array();
+                    depth--;
+                    return nested;
+                case '"':
+                    return string();
+                case 't':
+                    return literal("true", Boolean.TRUE);
+                case 'f':
+                    return literal("false", Boolean.FALSE);
+                case 'n':
+                    return literal("null", null);
+                default:
+                    return number();
+            }
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            position++;
+            skipSpace();
+            if (peek() == '}') {
+                position++;
+                return object;
+            }
+            while (true) {
+                skipSpace();
+                if (peek() != '"') {
+                    throw error("expected a key");
+                }
+                String key = string();
+                skipSpace();
+                expect(':');
+                object.put(key, value());
+                skipSpace();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect('}');
+                    return object;
+                }
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> array = new ArrayList<>();
+            position++;
+            skipSpace();
+            if (peek() == ']') {
+                position++;
+                return array;
+            }
+            while (true) {
+                array.add(value());
+                skipSpace();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect(']');
+                    return array;
+                }
+            }
+        }
+
+        private String string() {
+            position++;
+            StringBuilder out = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return out.toString();
+                }
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'n':
+                        out.append('\n');
+                        break;
+                    case 't':
+                        out.append('\t');
+                        break;
+                    case 'r':
+                        out.append('\r');
+                        break;
+                    case 'b':
+                        out.append('\b');
+                        break;
+                    case 'f':
+                        out.append('\f');
+                        break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw error("bad unicode escape");
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("bad unicode escape");
+                        }
+                        position += 4;
+                        break;
+                    default:
+                        out.append(escaped);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private Object literal(String word, Object value) {
+            if (!text.startsWith(word, position)) {
+                throw error("unexpected character");
+            }
+            position += word.length();
+            return value;
+        }
+
+        private Double number() {
+            int start = position;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            try {
+                return Double.parseDouble(text.substring(start, position));
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error("unexpected character");
+            }
+        }
+
+        private char peek() {
+            return position < text.length() ? text.charAt(position) : '\0';
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw error("expected '" + c + "'");
+            }
+            position++;
+        }
+
+        private void skipSpace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Bad JSON at character " + position + ": " + message + ".");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.Arrays;
+
+// Struct-of-arrays storage for CampusNavigator search states. Slot i describes one
+// (vertex, carrying, backpackLocation) state: its best cost, the action that reached it and
+// the slot it came from. The arrays, the state index and the heap are reused across searches,
+// so a warmed-up pool allocates nothing per query.
+class SearchStatePool {
+    private static final int CARRYING = 1;
+    private static final CampusNavigator.Action[] ACTIONS = CampusNavigator.Action.values();
+
+    double[] cost;
+    // index of the next schedule stop; always 0 for single-segment searches
+    int[] stage;
+    int[] vertex;
+    int[] backpack;
+    int[] pred;
+    // bit 0: carrying, remaining bits: Action ordinal
+    byte[] flags;
+    int size;
+    int goalVertex;
+    boolean goalCarrying;
+
+    final StateTable index;
+    final IndexedMinHeap heap;
+    private final int heapArity;
+    // the snapshot the current search runs on, and a cursor over it
+    private Graph view;
+    EdgeCursor edges;
+
+    SearchStatePool(int heapArity) {
+        this.cost = new double[64];
+        this.stage = new int[64];
+        this.vertex = new int[64];
+        this.backpack = new int[64];
+        this.pred = new int[64];
+        this.flags = new byte[64];
+        this.index = new StateTable(64);
+        this.heap = new IndexedMinHeap(64, heapArity);
+        this.heapArity = heapArity;
+    }
+
+    int getHeapArity() {
+        return heapArity;
+    }
+
+    // Starts a search on the given snapshot of the navigator's graph.
+    void reset(Graph snapshot) {
+        if (snapshot != view) {
+            view = snapshot;
+            edges = snapshot.edgeCursor();
+        }
+        size = 0;
+        index.clear();
+        heap.clear();
+    }
+
+    int add(int vertex, boolean carrying, int backpack, double cost, int pred, CampusNavigator.Action action) {
+        return add(0, vertex, carrying, backpack, cost, pred, action);
+    }
+
+    int add(int stage, int vertex, boolean carrying, int backpack, double cost, int pred, CampusNavigator.Action action) {
+        if (size == this.cost.length) {
+            grow();
+        }
+        int slot = size++;
+        this.stage[slot] = stage;
+        this.vertex[slot] = vertex;
+        this.backpack[slot] = backpack;
+        set(slot, cost, pred, carrying, action);
+        return slot;
+    }
+
+    void set(int slot, double cost, int pred, boolean carrying, CampusNavigator.Action action) {
+        this.cost[slot] = cost;
+        this.pred[slot] = pred;
+        this.flags[slot] = (byte) ((carrying ? CARRYING : 0) | action.ordinal() << 1);
+    }
+
+    boolean carrying(int slot) {
+        return (flags[slot] & CARRYING) != 0;
+    }
+
+    CampusNavigator.Action action(int slot) {
+        return ACTIONS[flags[slot] >> 1];
+    }
+
+    int capacity() {
+        return cost.length;
+    }
+
+    private void grow() {
+        int newCapacity = cost.length * 2;
+        cost = Arrays.copyOf(cost, newCapacity);
+        stage = Arrays.copyOf(stage, newCapacity);
+        vertex = Arrays.copyOf(vertex, newCapacity);
+        backpack = Arrays.copyOf(backpack, newCapacity);
+        pred = Arrays.copyOf(pred, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+    }
+}
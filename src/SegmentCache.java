@@ -0,0 +1,145 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Bounded LRU cache of CampusNavigator segment results for one graph, keyed by
+// (start, end, startCarrying, endCarrying, multiplier). Entries belong to the newest graph version seen:
+// the first lookup or store at a newer version drops them all, and searches that ran on an older snapshot
+// neither read nor store. Methods are synchronized so one cache can back several navigators on the same
+// graph, used from several threads.
+public class SegmentCache {
+    private final Graph graph;
+    private final int capacity;
+    private final LinkedHashMap<Key, CArrayList<CampusNavigator.Position>> entries;
+    private long graphVersion = -1;
+    private long hits = 0;
+    private long misses = 0;
+    private long invalidations = 0;
+
+    public SegmentCache(Graph graph, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive.");
+        }
+        this.graph = graph;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, CArrayList<CampusNavigator.Position>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CArrayList<CampusNavigator.Position>> eldest) {
+                return size() > SegmentCache.this.capacity;
+            }
+        };
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    // Returns a copy of the cached segment, or null on a miss.
+    // version is that of the snapshot the caller searches on.
+    synchronized CArrayList<CampusNavigator.Position> get(long version, int start, int end,
+                                                         boolean startCarrying, boolean endCarrying, double multiplier) {
+        if (!checkVersion(version)) {
+            misses++;
+            return null;
+        }
+        CArrayList<CampusNavigator.Position> segment = entries.get(new Key(start, end, startCarrying, endCarrying, multiplier));
+        if (segment == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copyOf(segment);
+    }
+
+    synchronized void put(long version, int start, int end, boolean startCarrying, boolean endCarrying,
+                          double multiplier, CArrayList<CampusNavigator.Position> segment) {
+        if (!checkVersion(version)) {
+            return;
+        }
+        entries.put(new Key(start, end, startCarrying, endCarrying, multiplier), copyOf(segment));
+    }
+
+    public synchronized void clear() {
+        if (!entries.isEmpty()) {
+            invalidations++;
+        }
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized String toString() {
+        return "SegmentCache[size=" + entries.size() + "/" + capacity + ", hits=" + hits +
+                ", misses=" + misses + ", invalidations=" + invalidations + "]";
+    }
+
+    // Moves the cache forward to a newer version; false when version is older than the entries held.
+    private boolean checkVersion(long version) {
+        if (version > graphVersion) {
+            clear();
+            graphVersion = version;
+        }
+        return version == graphVersion;
+    }
+
+    // Callers trim and append to the lists they get back, so the cache never hands out its own.
+    private static CArrayList<CampusNavigator.Position> copyOf(CArrayList<CampusNavigator.Position> segment) {
+        CArrayList<CampusNavigator.Position> copy = new CArrayList<>(Math.max(1, segment.size()));
+        copy.addAll(segment);
+        return copy;
+    }
+
+    private static final class Key {
+        private final int start;
+        private final int end;
+        private final boolean startCarrying;
+        private final boolean endCarrying;
+        private final double multiplier;
+
+        Key(int start, int end, boolean startCarrying, boolean endCarrying, double multiplier) {
+            this.start = start;
+            this.end = end;
+            this.startCarrying = startCarrying;
+            this.endCarrying = endCarrying;
+            this.multiplier = multiplier;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return start == other.start && end == other.end &&
+                    startCarrying == other.startCarrying && endCarrying == other.endCarrying &&
+                    Double.compare(multiplier, other.multiplier) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = start;
+            result = 31 * result + end;
+            result = 31 * result + (startCarrying ? 1 : 0);
+            result = 31 * result + (endCarrying ? 1 : 0);
+            result = 31 * result + Double.hashCode(multiplier);
+            return result;
+        }
+    }
+}
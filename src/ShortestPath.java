@@ -0,0 +1,69 @@
+// Result of a single Dijkstras query: the vertices from source to target and the weight of each step.
+public class ShortestPath {
+    private final int source;
+    private final int target;
+    private final int[] vertices;
+    private final double[] stepWeights;
+    private final double totalWeight;
+
+    ShortestPath(int source, int target, int[] vertices, double[] stepWeights) {
+        this.source = source;
+        this.target = target;
+        this.vertices = vertices;
+        this.stepWeights = stepWeights;
+        double total = 0;
+        for (double weight : stepWeights) {
+            total += weight;
+        }
+        this.totalWeight = vertices.length == 0 ? Double.POSITIVE_INFINITY : total;
+    }
+
+    static ShortestPath notFound(int source, int target) {
+        return new ShortestPath(source, target, new int[0], new double[0]);
+    }
+
+    public boolean isFound() {
+        return vertices.length > 0;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    // Number of vertices on the path, including source and target.
+    public int length() {
+        return vertices.length;
+    }
+
+    public int vertexAt(int index) {
+        return vertices[index];
+    }
+
+    // Weight of the step from vertexAt(index) to vertexAt(index + 1).
+    public double weightAt(int index) {
+        return stepWeights[index];
+    }
+
+    public int[] toArray() {
+        return vertices.clone();
+    }
+
+    public void print() {
+        if (!isFound()) {
+            System.out.println("No path found.");
+            return;
+        }
+        for (int i = 0; i < stepWeights.length; i++) {
+            System.out.println(vertices[i] + " " + vertices[i + 1] + " " + stepWeights[i]);
+        }
+        System.out.println(totalWeight);
+    }
+}
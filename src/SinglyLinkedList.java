@@ -1,5 +1,6 @@
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.Predicate;
 
 public class SinglyLinkedList<E> implements Iterable<E> {
     class Node {
@@ -14,6 +15,10 @@ public class SinglyLinkedList<E> implements Iterable<E> {
         public E getItem() {
             return item;
         }
+
+        public Node getNext() {
+            return next;
+        }
     }
 
     private Node head;
@@ -88,6 +93,11 @@ public class SinglyLinkedList<E> implements Iterable<E> {
         return current;
     }
 
+    // Cursor-style walk: for (Node n = first(); n != null; n = n.getNext())
+    public Node first() {
+        return head;
+    }
+
     public int size() {
         return size;
     }
@@ -149,6 +159,31 @@ public class SinglyLinkedList<E> implements Iterable<E> {
         }
     }
 
+    //O(n); returns how many items were removed
+    public int removeIf(Predicate<? super E> filter) {
+        int removed = 0;
+        while (head != null && filter.test(head.item)) {
+            head = head.next;
+            removed++;
+        }
+        if (head == null) {
+            tail = null;
+        } else {
+            Node current = head;
+            while (current.next != null) {
+                if (filter.test(current.next.item)) {
+                    current.next = current.next.next;
+                    removed++;
+                } else {
+                    current = current.next;
+                }
+            }
+            tail = current;
+        }
+        size -= removed;
+        return removed;
+    }
+
     public boolean contains(E item) {
         Node current = head;
         while (current != null) {
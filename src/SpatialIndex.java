@@ -0,0 +1,184 @@
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+// Uniform grid over vertex positions for nearest-vertex, radius and rectangle queries.
+// The bounding box is cut into cells holding about POINTS_PER_CELL vertices each, so a query near a point
+// looks at a few cells instead of every vertex. Built once in O(V); positions are copied, so later
+// changes to the caller's arrays are not seen.
+public class SpatialIndex {
+    private static final double POINTS_PER_CELL = 2;
+
+    private final int size;
+    private final double minX;
+    private final double minY;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int columns;
+    private final int rows;
+    // vertices of cell c are members[cellStart[c]] .. members[cellStart[c + 1] - 1], in increasing order
+    private final int[] cellStart;
+    private final int[] members;
+    private final double[] memberX;
+    private final double[] memberY;
+
+    //O(V)
+    public SpatialIndex(double[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("Need one coordinate pair per vertex.");
+        }
+        size = x.length;
+        double lowX = Double.POSITIVE_INFINITY, lowY = Double.POSITIVE_INFINITY;
+        double highX = Double.NEGATIVE_INFINITY, highY = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < size; v++) {
+            lowX = Math.min(lowX, x[v]);
+            lowY = Math.min(lowY, y[v]);
+            highX = Math.max(highX, x[v]);
+            highY = Math.max(highY, y[v]);
+        }
+        if (size == 0) {
+            lowX = lowY = highX = highY = 0;
+        }
+        int perSide = Math.max(1, (int) Math.ceil(Math.sqrt(size / POINTS_PER_CELL)));
+        minX = lowX;
+        minY = lowY;
+        columns = perSide;
+        rows = perSide;
+        // a degenerate extent still needs a positive cell size
+        cellWidth = Math.max(highX - lowX, 1e-9) / columns;
+        cellHeight = Math.max(highY - lowY, 1e-9) / rows;
+
+        cellStart = new int[columns * rows + 1];
+        int[] cellOf = new int[size];
+        for (int v = 0; v < size; v++) {
+            cellOf[v] = row(y[v]) * columns + column(x[v]);
+            cellStart[cellOf[v] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        members = new int[size];
+        memberX = new double[size];
+        memberY = new double[size];
+        int[] fill = cellStart.clone();
+        for (int v = 0; v < size; v++) {
+            int slot = fill[cellOf[v]]++;
+            members[slot] = v;
+            memberX[slot] = x[v];
+            memberY[slot] = y[v];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Closest vertex to (x, y), -1 when the index is empty.
+    public int nearest(double x, double y) {
+        return nearest(x, y, Double.POSITIVE_INFINITY, null);
+    }
+
+    // Closest vertex within maxDistance (inclusive) that accept allows, or -1. accept may be null.
+    // Ties go to the lower vertex index. Expected O(1) for a point among the vertices; it scans rings of
+    // cells outward and stops once no unscanned cell can be closer than the best match.
+    public int nearest(double x, double y, double maxDistance, IntPredicate accept) {
+        if (size == 0) {
+            return -1;
+        }
+        int centerColumn = column(x);
+        int centerRow = row(y);
+        int best = -1;
+        double bestSquared = maxDistance == Double.POSITIVE_INFINITY ? Double.POSITIVE_INFINITY : maxDistance * maxDistance;
+        for (int ring = 0; ; ring++) {
+            int left = centerColumn - ring, right = centerColumn + ring;
+            int bottom = centerRow - ring, top = centerRow + ring;
+            for (int r = Math.max(0, bottom); r <= Math.min(rows - 1, top); r++) {
+                // inner rows only touch the ring at its two ends
+                boolean edgeRow = r == bottom || r == top;
+                int step = edgeRow ? 1 : Math.max(1, right - left);
+                for (int c = left; c <= right; c += step) {
+                    if (c < 0 || c >= columns) {
+                        continue;
+                    }
+                    int cell = r * columns + c;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        double dx = memberX[i] - x, dy = memberY[i] - y;
+                        double squared = dx * dx + dy * dy;
+                        int v = members[i];
+                        if ((squared < bestSquared || squared == bestSquared && (best == -1 || v < best))
+                                && (accept == null || accept.test(v))) {
+                            best = v;
+                            bestSquared = squared;
+                        }
+                    }
+                }
+            }
+            // anything not yet scanned lies beyond one of the square's sides that still has cells behind it
+            double bound = Double.POSITIVE_INFINITY;
+            if (left > 0) {
+                bound = Math.min(bound, x - (minX + left * cellWidth));
+            }
+            if (right < columns - 1) {
+                bound = Math.min(bound, minX + (right + 1) * cellWidth - x);
+            }
+            if (bottom > 0) {
+                bound = Math.min(bound, y - (minY + bottom * cellHeight));
+            }
+            if (top < rows - 1) {
+                bound = Math.min(bound, minY + (top + 1) * cellHeight - y);
+            }
+            if (bound == Double.POSITIVE_INFINITY || bound > 0 && bound * bound > bestSquared) {
+                return best;
+            }
+        }
+    }
+
+    // Vertices within radius (inclusive) of (x, y), in increasing index order within each cell.
+    public CArrayList<Integer> within(double x, double y, double radius) {
+        CArrayList<Integer> found = new CArrayList<>();
+        double squaredRadius = radius * radius;
+        forEachCell(x - radius, y - radius, x + radius, y + radius, i -> {
+            double dx = memberX[i] - x, dy = memberY[i] - y;
+            if (dx * dx + dy * dy <= squaredRadius) {
+                found.add(members[i]);
+            }
+        });
+        return found;
+    }
+
+    // Vertices inside the rectangle, edges included.
+    public CArrayList<Integer> range(double lowX, double lowY, double highX, double highY) {
+        CArrayList<Integer> found = new CArrayList<>();
+        forEachCell(lowX, lowY, highX, highY, i -> {
+            if (memberX[i] >= lowX && memberX[i] <= highX && memberY[i] >= lowY && memberY[i] <= highY) {
+                found.add(members[i]);
+            }
+        });
+        return found;
+    }
+
+    // Calls visit with the member slot of every vertex in a cell overlapping the rectangle.
+    private void forEachCell(double lowX, double lowY, double highX, double highY, IntConsumer visit) {
+        if (size == 0 || lowX > highX || lowY > highY) {
+            return;
+        }
+        int firstColumn = column(lowX), lastColumn = column(highX);
+        int firstRow = row(lowY), lastRow = row(highY);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                int cell = r * columns + c;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    visit.accept(i);
+                }
+            }
+        }
+    }
+
+    // Cell column of an x coordinate; points outside the box are clamped to the border cells.
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((x - minX) / cellWidth)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((y - minY) / cellHeight)));
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.Arrays;
+
+// Open-addressing map from a packed long state key to an int slot, with linear probing.
+// clear() bumps a generation stamp instead of wiping the buckets, so a reused table
+// resets in O(1) and a search only pays for the states it actually touches.
+public class StateTable {
+    private long[] keys;
+    private int[] slots;
+    private int[] stamps;
+    private int generation = 1;
+    private int size = 0;
+    private int mask;
+
+    public StateTable() {
+        this(64);
+    }
+
+    public StateTable(int expectedStates) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedStates * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    //O(1) expected; returns -1 when the key has no slot
+    public int get(long key) {
+        int bucket = bucketOf(key);
+        while (stamps[bucket] == generation) {
+            if (keys[bucket] == key) {
+                return slots[bucket];
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        return -1;
+    }
+
+    //O(1) expected
+    public void put(long key, int slot) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int bucket = bucketOf(key);
+        while (stamps[bucket] == generation) {
+            if (keys[bucket] == key) {
+                slots[bucket] = slot;
+                return;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        stamps[bucket] = generation;
+        keys[bucket] = key;
+        slots[bucket] = slot;
+        size++;
+    }
+
+    public void clear() {
+        size = 0;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            generation = 0;
+        }
+        generation++;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        int[] oldStamps = stamps;
+        int oldGeneration = generation;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStamps[i] == oldGeneration) {
+                put(oldKeys[i], oldSlots[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        slots = new int[capacity];
+        stamps = new int[capacity];
+        mask = capacity - 1;
+        generation = 1;
+    }
+
+    private int bucketOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
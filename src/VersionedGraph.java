@@ -0,0 +1,528 @@
+import java.util.Arrays;
+
+// Graph that can be edited while queries run on it. Every committed edit publishes a new
+// immutable Snapshot through a volatile field; readers take the current snapshot with no locking
+// and keep a consistent view for as long as they hold it. Snapshots are copy-on-write per row, and
+// the row table is split into chunks of CHUNK_SIZE rows under a spine: a commit copies the spine
+// (V / CHUNK_SIZE references), the chunks it touches and the rows it touches, and shares the rest with
+// the previous version. A one-edge commit on a 10^7-vertex graph allocates about 100 KB.
+// Writers are serialized on a lock that readers never take.
+public class VersionedGraph implements MutableGraph {
+    static final int CHUNK_BITS = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    // shared by every empty row; rows are copied before they are edited, so this is never written
+    private static final int[] NO_TARGETS = new int[0];
+    private static final double[] NO_WEIGHTS = new double[0];
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot current;
+
+    public VersionedGraph(int vertices, boolean isDirected) {
+        if (vertices < 0) {
+            throw new IllegalArgumentException("Vertex count must not be negative.");
+        }
+        this.current = new Snapshot(vertices, isDirected, newTargetChunks(vertices), newWeightChunks(vertices), 0, 0);
+    }
+
+    private VersionedGraph(Snapshot initial) {
+        this.current = initial;
+    }
+
+    //O(V+E); undirected graphs already list both directions, so rows are copied as they are
+    public static VersionedGraph copyOf(Graph graph) {
+        int n = graph.getVertices();
+        int[][][] targets = newTargetChunks(n);
+        double[][][] weights = newWeightChunks(n);
+        int[] rowTargets = new int[16];
+        double[] rowWeights = new double[16];
+        int entries = 0;
+        EdgeCursor edges = graph.edgeCursor();
+        for (int v = 0; v < n; v++) {
+            int degree = 0;
+            edges.reset(v);
+            while (edges.next()) {
+                if (degree == rowTargets.length) {
+                    rowTargets = Arrays.copyOf(rowTargets, degree * 2);
+                    rowWeights = Arrays.copyOf(rowWeights, degree * 2);
+                }
+                rowTargets[degree] = edges.to();
+                rowWeights[degree] = edges.weight();
+                degree++;
+            }
+            targets[v >>> CHUNK_BITS][v & CHUNK_MASK] = Arrays.copyOf(rowTargets, degree);
+            weights[v >>> CHUNK_BITS][v & CHUNK_MASK] = Arrays.copyOf(rowWeights, degree);
+            entries += degree;
+        }
+        return new VersionedGraph(new Snapshot(n, graph.isDirected(), targets, weights, entries, 0));
+    }
+
+    // Row tables with every row empty. The last chunk only has room for the vertices left over.
+    private static int[][][] newTargetChunks(int vertices) {
+        int[][][] chunks = new int[(vertices + CHUNK_MASK) >>> CHUNK_BITS][][];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = new int[Math.min(CHUNK_SIZE, vertices - (c << CHUNK_BITS))][];
+            Arrays.fill(chunks[c], NO_TARGETS);
+        }
+        return chunks;
+    }
+
+    private static double[][][] newWeightChunks(int vertices) {
+        double[][][] chunks = new double[(vertices + CHUNK_MASK) >>> CHUNK_BITS][][];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = new double[Math.min(CHUNK_SIZE, vertices - (c << CHUNK_BITS))][];
+            Arrays.fill(chunks[c], NO_WEIGHTS);
+        }
+        return chunks;
+    }
+
+    // The latest published version. It never changes, so a query can run on it start to finish.
+    @Override
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    @Override
+    public void addEdge(int from, int to) {
+        addEdge(from, to, 1);
+    }
+
+    @Override
+    public void addEdge(int from, int to, double weight) {
+        edit().addEdge(from, to, weight).commit();
+    }
+
+    // Removes every from -> to edge (and to -> from when undirected); false if there was none.
+    public boolean removeEdge(int from, int to) {
+        return edit().removeEdge(from, to).commit() > 0;
+    }
+
+    // Reweights every from -> to edge (and to -> from when undirected); false if there was none.
+    public boolean updateWeight(int from, int to, double weight) {
+        return edit().updateWeight(from, to, weight).commit() > 0;
+    }
+
+    // Starts a batch of edits that becomes visible all at once when committed.
+    public Batch edit() {
+        return new Batch();
+    }
+
+    @Override
+    public boolean hasEdge(int from, int to) {
+        return current.hasEdge(from, to);
+    }
+
+    @Override
+    public void printNeighbors(int vertex) {
+        current.printNeighbors(vertex);
+    }
+
+    @Override
+    public void printMaxDegree() {
+        current.printMaxDegree();
+    }
+
+    @Override
+    public int getVertices() {
+        return current.getVertices();
+    }
+
+    @Override
+    public boolean isDirected() {
+        return current.isDirected();
+    }
+
+    // Each reset reads the latest snapshot, so one search may see rows from different versions;
+    // searches that need a single version should use snapshot().edgeCursor().
+    @Override
+    public EdgeCursor edgeCursor() {
+        return new LatestEdgeCursor();
+    }
+
+    @Override
+    public long getVersion() {
+        return current.getVersion();
+    }
+
+    public int getEdgeCount() {
+        return current.getEdgeCount();
+    }
+
+    // Edits are recorded and only applied in commit, on top of whatever version is current then,
+    // so concurrent batches never overwrite each other.
+    public class Batch {
+        private static final int ADD = 0;
+        private static final int REMOVE = 1;
+        private static final int UPDATE = 2;
+
+        private int[] kinds = new int[8];
+        private int[] froms = new int[8];
+        private int[] tos = new int[8];
+        private double[] weights = new double[8];
+        private int size = 0;
+        private boolean committed = false;
+
+        private Batch() {
+        }
+
+        public Batch addEdge(int from, int to, double weight) {
+            return record(ADD, from, to, weight);
+        }
+
+        public Batch removeEdge(int from, int to) {
+            return record(REMOVE, from, to, 0);
+        }
+
+        public Batch updateWeight(int from, int to, double weight) {
+            return record(UPDATE, from, to, weight);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Publishes one new version with every recorded edit, and returns how many edges were
+        // added, removed or reweighted. An edit that matches nothing publishes nothing.
+        public int commit() {
+            if (committed) {
+                throw new IllegalStateException("Batch has already been committed.");
+            }
+            committed = true;
+            synchronized (writeLock) {
+                Snapshot base = current;
+                // an edit touches at most two rows
+                RowEdits rows = new RowEdits(base, 2 * size);
+                int entries = base.entries;
+                int changed = 0;
+                for (int i = 0; i < size; i++) {
+                    int from = froms[i];
+                    int to = tos[i];
+                    int matched = rows.apply(kinds[i], from, to, weights[i]);
+                    int reverse = 0;
+                    // like AdjacencyListGraph, an undirected self-loop is listed twice in its row
+                    if (!base.isDirected && (from != to || kinds[i] == ADD)) {
+                        reverse = rows.apply(kinds[i], to, from, weights[i]);
+                    }
+                    if (kinds[i] != UPDATE) {
+                        int delta = matched + reverse;
+                        entries += kinds[i] == ADD ? delta : -delta;
+                    }
+                    changed += base.isDirected || from != to ? matched : (matched + reverse) / 2;
+                }
+                if (changed > 0) {
+                    rows.trim();
+                    current = new Snapshot(base.vertices, base.isDirected, rows.targets, rows.weights, entries,
+                            base.version + 1);
+                }
+                return changed;
+            }
+        }
+
+        private Batch record(int kind, int from, int to, double weight) {
+            if (committed) {
+                throw new IllegalStateException("Batch has already been committed.");
+            }
+            int n = current.vertices;
+            if (from < 0 || from >= n || to < 0 || to >= n) {
+                throw new IndexOutOfBoundsException("Vertex index out of bounds.");
+            }
+            if (size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, size * 2);
+                froms = Arrays.copyOf(froms, size * 2);
+                tos = Arrays.copyOf(tos, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            kinds[size] = kind;
+            froms[size] = from;
+            tos[size] = to;
+            weights[size] = weight;
+            size++;
+            return this;
+        }
+    }
+
+    // The row table one commit builds on top of base. The first edit to a chunk copies it and the first
+    // edit to a row copies the row; after that the copy is edited in place and grows geometrically, so
+    // k additions to one row cost O(degree + k) rather than O(k * degree). Only the rows touched are
+    // tracked, in a table sized to the batch.
+    private static final class RowEdits {
+        private final Snapshot base;
+        private final int[][][] targets;
+        private final double[][][] weights;
+        // row -> its index in touched and lengths
+        private final StateTable touchedIndex;
+        private int[] touched;
+        // slots in use in each touched row; the copy may be longer
+        private int[] lengths;
+        private int count = 0;
+
+        RowEdits(Snapshot base, int expectedRows) {
+            this.base = base;
+            this.targets = base.targets.clone();
+            this.weights = base.weights.clone();
+            this.touchedIndex = new StateTable(expectedRows);
+            this.touched = new int[Math.max(1, expectedRows)];
+            this.lengths = new int[touched.length];
+        }
+
+        // Applies one directed edit to the row of from and returns the number of edges it matched.
+        int apply(int kind, int from, int to, double weight) {
+            int index = touchedIndex.get(from);
+            int length = index < 0 ? base.degree(from) : lengths[index];
+            int matched = 0;
+            if (kind != Batch.ADD) {
+                int[] row = targets[from >>> CHUNK_BITS][from & CHUNK_MASK];
+                for (int i = 0; i < length; i++) {
+                    if (row[i] == to) {
+                        matched++;
+                    }
+                }
+                if (matched == 0) {
+                    return 0;
+                }
+            }
+            index = reserve(from, index, kind == Batch.ADD ? length + 1 : length);
+            int[] row = targets[from >>> CHUNK_BITS][from & CHUNK_MASK];
+            double[] rowWeight = weights[from >>> CHUNK_BITS][from & CHUNK_MASK];
+
+            if (kind == Batch.ADD) {
+                row[length] = to;
+                rowWeight[length] = weight;
+                lengths[index] = length + 1;
+                return 1;
+            }
+            if (kind == Batch.UPDATE) {
+                for (int i = 0; i < length; i++) {
+                    if (row[i] == to) {
+                        rowWeight[i] = weight;
+                    }
+                }
+                return matched;
+            }
+
+            // removal keeps the order of the remaining edges
+            int kept = 0;
+            for (int i = 0; i < length; i++) {
+                if (row[i] != to) {
+                    row[kept] = row[i];
+                    rowWeight[kept] = rowWeight[i];
+                    kept++;
+                }
+            }
+            lengths[index] = kept;
+            return matched;
+        }
+
+        // Makes the row of vertex this commit's own copy with room for needed slots; returns its index.
+        private int reserve(int vertex, int index, int needed) {
+            int chunk = vertex >>> CHUNK_BITS;
+            int slot = vertex & CHUNK_MASK;
+            if (index < 0) {
+                if (targets[chunk] == base.targets[chunk]) {
+                    targets[chunk] = targets[chunk].clone();
+                    weights[chunk] = weights[chunk].clone();
+                }
+                targets[chunk][slot] = Arrays.copyOf(targets[chunk][slot], needed);
+                weights[chunk][slot] = Arrays.copyOf(weights[chunk][slot], needed);
+                if (count == touched.length) {
+                    touched = Arrays.copyOf(touched, count * 2);
+                    lengths = Arrays.copyOf(lengths, count * 2);
+                }
+                index = count++;
+                touched[index] = vertex;
+                lengths[index] = base.degree(vertex);
+                touchedIndex.put(vertex, index);
+            } else if (needed > targets[chunk][slot].length) {
+                int capacity = Math.max(needed, 2 * lengths[index]);
+                targets[chunk][slot] = Arrays.copyOf(targets[chunk][slot], capacity);
+                weights[chunk][slot] = Arrays.copyOf(weights[chunk][slot], capacity);
+            }
+            return index;
+        }
+
+        // Published rows are exactly as long as their degree.
+        void trim() {
+            for (int i = 0; i < count; i++) {
+                int chunk = touched[i] >>> CHUNK_BITS;
+                int slot = touched[i] & CHUNK_MASK;
+                if (lengths[i] != targets[chunk][slot].length) {
+                    targets[chunk][slot] = Arrays.copyOf(targets[chunk][slot], lengths[i]);
+                    weights[chunk][slot] = Arrays.copyOf(weights[chunk][slot], lengths[i]);
+                }
+            }
+        }
+    }
+
+    private class LatestEdgeCursor implements EdgeCursor {
+        private Snapshot snapshot;
+        private EdgeCursor edges;
+
+        @Override
+        public void reset(int vertex) {
+            Snapshot latest = current;
+            if (latest != snapshot) {
+                snapshot = latest;
+                edges = latest.edgeCursor();
+            }
+            edges.reset(vertex);
+        }
+
+        @Override
+        public boolean next() {
+            return edges.next();
+        }
+
+        @Override
+        public int to() {
+            return edges.to();
+        }
+
+        @Override
+        public double weight() {
+            return edges.weight();
+        }
+    }
+
+    // One published version. Rows are never written after publication, so any number of threads
+    // can read a snapshot while newer ones are being built.
+    public static final class Snapshot implements Graph {
+        private final int vertices;
+        private final boolean isDirected;
+        // row v is targets[v >>> CHUNK_BITS][v & CHUNK_MASK]
+        private final int[][][] targets;
+        private final double[][][] weights;
+        // adjacency entries over all rows; undirected edges count twice
+        private final int entries;
+        private final long version;
+
+        private Snapshot(int vertices, boolean isDirected, int[][][] targets, double[][][] weights, int entries,
+                         long version) {
+            this.vertices = vertices;
+            this.isDirected = isDirected;
+            this.targets = targets;
+            this.weights = weights;
+            this.entries = entries;
+            this.version = version;
+        }
+
+        //O(degree)
+        @Override
+        public boolean hasEdge(int from, int to) {
+            checkVertex(from);
+            for (int target : row(from)) {
+                if (target == to) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        //O(degree)
+        public double getEdgeWeight(int from, int to) {
+            checkVertex(from);
+            int[] row = row(from);
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] == to) {
+                    return weights[from >>> CHUNK_BITS][from & CHUNK_MASK][i];
+                }
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public void printNeighbors(int vertex) {
+            checkVertex(vertex);
+            for (int target : row(vertex)) {
+                System.out.print(target + " ");
+            }
+            System.out.println();
+        }
+
+        //O(V)
+        @Override
+        public void printMaxDegree() {
+            int maxDegree = -1;
+            int maxVertex = -1;
+            for (int i = 0; i < vertices; i++) {
+                if (row(i).length > maxDegree) {
+                    maxDegree = row(i).length;
+                    maxVertex = i;
+                }
+            }
+            System.out.println(maxVertex + " " + maxDegree);
+        }
+
+        public int degree(int vertex) {
+            checkVertex(vertex);
+            return row(vertex).length;
+        }
+
+        private int[] row(int vertex) {
+            return targets[vertex >>> CHUNK_BITS][vertex & CHUNK_MASK];
+        }
+
+        @Override
+        public int getVertices() {
+            return vertices;
+        }
+
+        @Override
+        public boolean isDirected() {
+            return isDirected;
+        }
+
+        public int getEdgeCount() {
+            return isDirected ? entries : entries / 2;
+        }
+
+        @Override
+        public EdgeCursor edgeCursor() {
+            return new RowEdgeCursor();
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        private void checkVertex(int vertex) {
+            if (vertex < 0 || vertex >= vertices) {
+                throw new IndexOutOfBoundsException("Vertex index out of bounds.");
+            }
+        }
+
+        private class RowEdgeCursor implements EdgeCursor {
+            private int[] row;
+            private double[] rowWeights;
+            private int index;
+
+            @Override
+            public void reset(int vertex) {
+                checkVertex(vertex);
+                row = targets[vertex >>> CHUNK_BITS][vertex & CHUNK_MASK];
+                rowWeights = weights[vertex >>> CHUNK_BITS][vertex & CHUNK_MASK];
+                index = -1;
+            }
+
+            @Override
+            public boolean next() {
+                if (index + 1 >= row.length) {
+                    index = row.length;
+                    return false;
+                }
+                index++;
+                return true;
+            }
+
+            @Override
+            public int to() {
+                return row[index];
+            }
+
+            @Override
+            public double weight() {
+                return rowWeights[index];
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.function.Function;
+
+// The naming layer for a graph: the i-th registered item is vertex i. Finds a vertex from its name or
+// from the item itself in O(1), where scanning the item list would cost O(V) per lookup.
+// When several items share a name, lookups by that name return the first one registered.
+public class VertexRegistry<T> {
+    private final CArrayList<T> items = new CArrayList<>();
+    private final CArrayList<String> names = new CArrayList<>();
+    private final HashMap<String, Integer> byName = new HashMap<>();
+    private final IdentityHashMap<T, Integer> byItem = new IdentityHashMap<>();
+    private final Function<T, String> nameOf;
+
+    public VertexRegistry(Function<T, String> nameOf) {
+        this.nameOf = nameOf;
+    }
+
+    // Items that are their own names.
+    public static VertexRegistry<String> ofNames() {
+        return new VertexRegistry<>(name -> name);
+    }
+
+    //O(1) amortized; returns the new vertex index
+    public int add(T item) {
+        String name = nameOf.apply(item);
+        if (name == null) {
+            throw new IllegalArgumentException("Vertex name must not be null.");
+        }
+        if (byItem.containsKey(item)) {
+            throw new IllegalArgumentException("Already registered: " + name);
+        }
+        int index = items.size();
+        items.add(item);
+        names.add(name);
+        byName.putIfAbsent(name, index);
+        byItem.put(item, index);
+        return index;
+    }
+
+    public T get(int vertex) {
+        return items.get(vertex);
+    }
+
+    public String getName(int vertex) {
+        return names.get(vertex);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    //O(1); -1 when nothing has that name
+    public int indexOfName(String name) {
+        Integer index = byName.get(name);
+        return index == null ? -1 : index;
+    }
+
+    //O(1); matches the item itself, not an equal one, -1 when it is not registered
+    public int indexOf(T item) {
+        Integer index = byItem.get(item);
+        return index == null ? -1 : index;
+    }
+
+    public int requireName(String name) {
+        int index = indexOfName(name);
+        if (index == -1) {
+            throw new IllegalArgumentException("Unknown vertex: " + name);
+        }
+        return index;
+    }
+}